@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Arrays.asList;
+import static java.util.Optional.of;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trellisldp.vocabulary.AS;
+import org.trellisldp.vocabulary.LDP;
+import org.trellisldp.vocabulary.PROV;
+
+/**
+ * Benchmarks for the serialization of {@link Event} objects.
+ *
+ * @author acoburn
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ActivityStreamSerializerBenchmark {
+
+    private static final RDF rdf = new SimpleRDF();
+
+    @Param({"1", "10", "100"})
+    private int agents;
+
+    private Event event;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setUp() {
+        final List<IRI> actors = range(0, agents).mapToObj(i -> rdf.createIRI("info:user/agent" + i))
+            .collect(toList());
+        final List<IRI> types = asList(AS.Update, PROV.Activity);
+        final List<IRI> targetTypes = asList(LDP.RDFSource, LDP.Container, LDP.BasicContainer);
+        final Instant created = Instant.now();
+        buffer = ByteBuffer.allocate(64 * 1024);
+        event = new Event() {
+            @Override
+            public IRI getIdentifier() {
+                return rdf.createIRI("urn:uuid:c4c4e3c4-3ab4-4a3f-9ad0-9d5dbc7f0a43");
+            }
+
+            @Override
+            public Collection<IRI> getAgents() {
+                return actors;
+            }
+
+            @Override
+            public Optional<IRI> getTarget() {
+                return of(rdf.createIRI("http://localhost:8080/repository/resource"));
+            }
+
+            @Override
+            public Collection<IRI> getTypes() {
+                return types;
+            }
+
+            @Override
+            public Collection<IRI> getTargetTypes() {
+                return targetTypes;
+            }
+
+            @Override
+            public Instant getCreated() {
+                return created;
+            }
+
+            @Override
+            public Optional<IRI> getInbox() {
+                return of(rdf.createIRI("http://localhost:8080/inbox"));
+            }
+        };
+    }
+
+    @Benchmark
+    public Optional<String> serialize() {
+        return ActivityStreamSerializer.serialize(event);
+    }
+
+    @Benchmark
+    public int serializeToBuffer() {
+        buffer.clear();
+        return ActivityStreamSerializer.serialize(event, buffer);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return ActivityStreamSerializer.serializeBinary(event);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.trellisldp.vocabulary.RDF.type;
+
+import java.util.List;
+
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.trellisldp.vocabulary.ACL;
+import org.trellisldp.vocabulary.FOAF;
+
+/**
+ * Benchmarks for the construction of {@link Authorization} objects.
+ *
+ * @author acoburn
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AuthorizationBenchmark {
+
+    private static final RDF rdf = new SimpleRDF();
+
+    @Param({"1", "10", "100"})
+    private int agents;
+
+    @Param({"1", "10", "100"})
+    private int authorizations;
+
+    private Graph graph;
+    private IRI subject;
+
+    @Setup
+    public void setUp() {
+        graph = rdf.createGraph();
+        for (int i = 0; i < authorizations; ++i) {
+            final IRI auth = rdf.createIRI("trellis:repository/acl#auth" + i);
+            graph.add(auth, type, ACL.Authorization);
+            graph.add(auth, ACL.mode, ACL.Read);
+            graph.add(auth, ACL.mode, ACL.Write);
+            graph.add(auth, ACL.accessTo, rdf.createIRI("trellis:repository/resource"));
+            graph.add(auth, ACL.default_, rdf.createIRI("trellis:repository"));
+            graph.add(auth, ACL.agentClass, FOAF.Agent);
+            for (int j = 0; j < agents; ++j) {
+                graph.add(auth, ACL.agent, rdf.createIRI("info:user/agent" + j));
+            }
+        }
+        subject = rdf.createIRI("trellis:repository/acl#auth0");
+    }
+
+    @Benchmark
+    public Authorization createAuthorization() {
+        return Authorization.from(subject, graph);
+    }
+
+    @Benchmark
+    public List<Authorization> createAllAuthorizations() {
+        return Authorization.allFrom(graph);
+    }
+}
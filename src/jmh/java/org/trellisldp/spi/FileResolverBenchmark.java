@@ -0,0 +1,171 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for reading and writing binary content with a {@link FileResolver}.
+ *
+ * @author acoburn
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileResolverBenchmark {
+
+    private static final RDF rdf = new SimpleRDF();
+    private static final String PARTITION = "repository";
+    private static final IRI identifier = rdf.createIRI("file:///binary/resource");
+
+    /**
+     * Stored content to be read; reads do not depend on the sync policy
+     */
+    @State(Scope.Benchmark)
+    public static class Stored {
+
+        @Param({"1024", "1048576"})
+        private int size;
+
+        private final byte[] buffer = new byte[64 * 1024];
+        private Path base;
+        private FileResolver resolver;
+
+        @Setup
+        public void setUp() throws IOException {
+            base = Files.createTempDirectory("trellis-binaries");
+            resolver = new FileResolver(base);
+            resolver.setContent(PARTITION, identifier, new ByteArrayInputStream(data(size)));
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            delete(base);
+        }
+    }
+
+    /**
+     * Content to be written with each sync policy
+     */
+    @State(Scope.Benchmark)
+    public static class Written {
+
+        @Param({"1024", "1048576"})
+        private int size;
+
+        @Param({"NONE", "FILE", "DIRECTORY"})
+        private FileResolver.SyncPolicy syncPolicy;
+
+        private byte[] data;
+        private Path base;
+        private FileResolver resolver;
+
+        @Setup
+        public void setUp() throws IOException {
+            data = data(size);
+            base = Files.createTempDirectory("trellis-binaries");
+            resolver = new FileResolver(base, syncPolicy);
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            delete(base);
+        }
+    }
+
+    @Benchmark
+    public void setContent(final Written state) {
+        state.resolver.setContent(PARTITION, identifier, new ByteArrayInputStream(state.data));
+    }
+
+    @Benchmark
+    public long getContent(final Stored state) throws IOException {
+        long total = 0L;
+        try (final InputStream input = state.resolver.getContent(PARTITION, identifier).get()) {
+            int count;
+            while ((count = input.read(state.buffer)) >= 0) {
+                total += count;
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long getRange(final Stored state) throws IOException {
+        long total = 0L;
+        try (final InputStream input = state.resolver.getContent(PARTITION, identifier, state.size / 2,
+                    state.size - 1).get()) {
+            int count;
+            while ((count = input.read(state.buffer)) >= 0) {
+                total += count;
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long getBuffer(final Stored state) {
+        final ByteBuffer buffer = state.resolver.getBuffer(PARTITION, identifier, state.size / 2, state.size - 1)
+            .get();
+        // Read every byte, so that the mapped pages are actually loaded
+        long total = 0L;
+        while (buffer.remaining() >= Long.BYTES) {
+            total += buffer.getLong();
+        }
+        while (buffer.hasRemaining()) {
+            total += buffer.get();
+        }
+        return total;
+    }
+
+    private static byte[] data(final int size) {
+        final byte[] data = new byte[size];
+        new Random(1L).nextBytes(data);
+        return data;
+    }
+
+    private static void delete(final Path base) throws IOException {
+        try (final Stream<Path> files = Files.walk(base)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
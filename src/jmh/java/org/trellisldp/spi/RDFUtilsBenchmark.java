@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+
+import java.util.List;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.api.Triple;
+import org.apache.commons.rdf.simple.SimpleRDF;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.trellisldp.vocabulary.DC;
+import org.trellisldp.vocabulary.LDP;
+
+/**
+ * Benchmarks for the term conversion and identifier methods in {@link RDFUtils} and {@link TermTranslator}.
+ *
+ * @author acoburn
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RDFUtilsBenchmark {
+
+    private static final RDF rdf = new SimpleRDF();
+    private static final String BASE_URL = "http://localhost:8080/";
+
+    /**
+     * Triples to be translated, in both internal and external form
+     */
+    @State(Scope.Benchmark)
+    public static class Triples {
+
+        @Param({"10", "1000", "100000"})
+        private int triples;
+
+        private List<Triple> internal;
+        private List<Triple> external;
+        private TermTranslator translator;
+
+        @Setup
+        public void setUp() {
+            final IRI container = rdf.createIRI(RDFUtils.TRELLIS_PREFIX + "repository/container");
+            internal = range(0, triples).mapToObj(i -> rdf.createTriple(container, LDP.contains,
+                        rdf.createIRI(RDFUtils.TRELLIS_PREFIX + "repository/container/child" + i)))
+                .collect(toList());
+            external = internal.stream().map(triple -> rdf.createTriple(
+                        RDFUtils.toExternalTerm(triple.getSubject(), BASE_URL), triple.getPredicate(),
+                        RDFUtils.toExternalTerm(triple.getObject(), BASE_URL))).collect(toList());
+            translator = new TermTranslator(BASE_URL, 1024);
+        }
+    }
+
+    /**
+     * An identifier to be cleaned
+     */
+    @State(Scope.Benchmark)
+    public static class Identifier {
+
+        @Param({"32", "256", "2048"})
+        private int iriLength;
+
+        private String identifier;
+
+        @Setup
+        public void setUp() {
+            final StringBuilder path = new StringBuilder(BASE_URL);
+            while (path.length() < iriLength) {
+                path.append("segment/");
+            }
+            identifier = path.append("#fragment").toString();
+        }
+    }
+
+    @Benchmark
+    public void toExternalTerm(final Triples state, final Blackhole blackhole) {
+        for (final Triple triple : state.internal) {
+            blackhole.consume(RDFUtils.toExternalTerm(triple.getSubject(), BASE_URL));
+            blackhole.consume(RDFUtils.toExternalTerm(triple.getPredicate(), BASE_URL));
+            blackhole.consume(RDFUtils.toExternalTerm(triple.getObject(), BASE_URL));
+        }
+    }
+
+    @Benchmark
+    public void toInternalTerm(final Triples state, final Blackhole blackhole) {
+        for (final Triple triple : state.external) {
+            blackhole.consume(RDFUtils.toInternalTerm(triple.getSubject(), BASE_URL));
+            blackhole.consume(RDFUtils.toInternalTerm(triple.getPredicate(), BASE_URL));
+            blackhole.consume(RDFUtils.toInternalTerm(triple.getObject(), BASE_URL));
+        }
+    }
+
+    @Benchmark
+    public void translatorToExternal(final Triples state, final Blackhole blackhole) {
+        state.translator.toExternalTriples(state.internal.stream()).forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void translatorToInternal(final Triples state, final Blackhole blackhole) {
+        state.translator.toInternalTriples(state.external.stream()).forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public String cleanIdentifier(final Identifier state) {
+        return RDFUtils.cleanIdentifier(state.identifier);
+    }
+
+    @Benchmark
+    public List<IRI> ldpResourceTypes() {
+        return RDFUtils.ldpResourceTypes(LDP.BasicContainer).collect(toList());
+    }
+
+    @Benchmark
+    public List<IRI> ldpResourceTypesUnknown() {
+        return RDFUtils.ldpResourceTypes(DC.title).collect(toList());
+    }
+}
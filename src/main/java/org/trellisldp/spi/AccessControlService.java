@@ -72,6 +72,34 @@ public interface AccessControlService {
         return anyMatch(session, identifier, ACL.Append::equals);
     }
 
+    /**
+     * Get all of the access modes that the user has for the given resource
+     *
+     * <p>The default implementation combines the results of {@link #canRead}, {@link #canWrite},
+     * {@link #canAppend} and {@link #canControl}, so it never grants a mode that those methods deny.
+     * Implementations may override this to compute every mode at once.</p>
+     *
+     * @param session the user session
+     * @param identifier the resource identifier
+     * @return the access modes, as a bitmask of {@link AccessModes} values
+     */
+    default int getAccessModes(Session session, IRI identifier) {
+        int modes = AccessModes.NONE;
+        if (canRead(session, identifier)) {
+            modes |= AccessModes.READ;
+        }
+        if (canWrite(session, identifier)) {
+            modes |= AccessModes.WRITE;
+        }
+        if (canAppend(session, identifier)) {
+            modes |= AccessModes.APPEND;
+        }
+        if (canControl(session, identifier)) {
+            modes |= AccessModes.CONTROL;
+        }
+        return modes;
+    }
+
     /**
      * Test whether the given acl:Mode matches a given predicate
      * @param session the user session
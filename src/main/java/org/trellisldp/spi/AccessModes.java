@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.rangeClosed;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.rdf.api.IRI;
+import org.trellisldp.vocabulary.ACL;
+
+/**
+ * The AccessModes class provides a compact, bitmask representation of the WebAC access modes.
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+public final class AccessModes {
+
+    /**
+     * No access
+     */
+    public static final int NONE = 0;
+
+    /**
+     * The acl:Read mode
+     */
+    public static final int READ = 1;
+
+    /**
+     * The acl:Write mode
+     */
+    public static final int WRITE = 2;
+
+    /**
+     * The acl:Append mode
+     */
+    public static final int APPEND = 4;
+
+    /**
+     * The acl:Control mode
+     */
+    public static final int CONTROL = 8;
+
+    /**
+     * All of the access modes
+     */
+    public static final int ALL = READ | WRITE | APPEND | CONTROL;
+
+    private static final List<Set<IRI>> modeSets = unmodifiableList(rangeClosed(NONE, ALL)
+            .mapToObj(AccessModes::buildModes).collect(toList()));
+
+    /**
+     * Get the bitmask for an access mode
+     * @param mode the access mode
+     * @return the bitmask, or {@link #NONE} if the mode is not a WebAC access mode
+     */
+    public static int of(final IRI mode) {
+        if (ACL.Read.equals(mode)) {
+            return READ;
+        } else if (ACL.Write.equals(mode)) {
+            return WRITE;
+        } else if (ACL.Append.equals(mode)) {
+            return APPEND;
+        } else if (ACL.Control.equals(mode)) {
+            return CONTROL;
+        }
+        return NONE;
+    }
+
+    /**
+     * Get the bitmask for a collection of access modes
+     * @param modes the access modes
+     * @return the bitmask
+     */
+    public static int of(final Collection<IRI> modes) {
+        int mask = NONE;
+        for (final IRI mode : modes) {
+            mask |= of(mode);
+        }
+        return mask;
+    }
+
+    /**
+     * Get the access modes represented by a bitmask
+     * @param mask the bitmask
+     * @return the access modes, as a shared, immutable set
+     */
+    public static Set<IRI> toModes(final int mask) {
+        return modeSets.get(mask & ALL);
+    }
+
+    private static Set<IRI> buildModes(final int mask) {
+        final Set<IRI> modes = new LinkedHashSet<>();
+        if ((mask & READ) != 0) {
+            modes.add(ACL.Read);
+        }
+        if ((mask & WRITE) != 0) {
+            modes.add(ACL.Write);
+        }
+        if ((mask & APPEND) != 0) {
+            modes.add(ACL.Append);
+        }
+        if ((mask & CONTROL) != 0) {
+            modes.add(ACL.Control);
+        }
+        return unmodifiableSet(modes);
+    }
+
+    private AccessModes() {
+        // prevent instantiation
+    }
+}
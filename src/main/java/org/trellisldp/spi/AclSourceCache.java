@@ -0,0 +1,215 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.apache.commons.rdf.api.IRI;
+
+/**
+ * A cache of the effective ACL source for each resource: that is, the resource itself or the
+ * nearest ancestor container that has an ACL.
+ *
+ * <p>When a resource is resolved, every container visited on the way up the hierarchy is cached
+ * along with it, so resolving a sibling or a descendant only needs to walk as far as the nearest
+ * cached ancestor. Entries are ordered by identifier, which allows the entries for a resource and
+ * all of its descendants to be invalidated together when an ACL is added to or removed from that
+ * resource. Once the cache is full, entries are evicted with the CLOCK algorithm, sweeping through
+ * that ordering: an entry that has been used since the sweep last passed it is given a second chance,
+ * so eviction approximates least-recently-used without taking a lock when a cached entry is read.
+ * Entries cached by the resolution that filled the cache are not evicted by it.</p>
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+public class AclSourceCache {
+
+    private final Function<IRI, Optional<IRI>> containers;
+    private final Predicate<IRI> hasAcl;
+    private final long maximumSize;
+
+    private final ConcurrentSkipListMap<String, Source> sources = new ConcurrentSkipListMap<>();
+    private long size = 0L;
+    private long generation = 0L;
+    private String hand;
+
+    /**
+     * Create an ACL source cache
+     * @param service the resource service, used to find the container of a resource
+     * @param hasAcl a predicate that tests whether a resource has its own ACL
+     * @param maximumSize the maximum number of resources to cache
+     */
+    public AclSourceCache(final ResourceService service, final Predicate<IRI> hasAcl, final long maximumSize) {
+        this(requireNonNull(service, "The resource service may not be null!")::getContainer, hasAcl, maximumSize);
+    }
+
+    /**
+     * Create an ACL source cache
+     * @param containers a function that finds the container of a resource
+     * @param hasAcl a predicate that tests whether a resource has its own ACL
+     * @param maximumSize the maximum number of resources to cache
+     */
+    public AclSourceCache(final Function<IRI, Optional<IRI>> containers, final Predicate<IRI> hasAcl,
+            final long maximumSize) {
+        requireNonNull(containers, "The container function may not be null!");
+        requireNonNull(hasAcl, "The ACL predicate may not be null!");
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("The cache size may not be negative!");
+        }
+        this.containers = containers;
+        this.hasAcl = hasAcl;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Get the effective ACL source for a resource
+     * @param identifier the resource identifier
+     * @return the resource, or the nearest ancestor, that has an ACL, if any
+     */
+    public Optional<IRI> getAclSource(final IRI identifier) {
+        requireNonNull(identifier, "The identifier may not be null!");
+        final long stamp;
+        synchronized (this) {
+            stamp = generation;
+        }
+
+        final List<IRI> visited = new ArrayList<>();
+        Optional<IRI> source = empty();
+        Optional<IRI> node = of(identifier);
+        while (node.isPresent()) {
+            final IRI current = node.get();
+            final Source cached = sources.get(current.getIRIString());
+            if (cached != null) {
+                cached.touch();
+                source = cached.source;
+                break;
+            }
+            visited.add(current);
+            if (hasAcl.test(current)) {
+                source = node;
+                break;
+            }
+            node = containers.apply(current);
+        }
+
+        if (!visited.isEmpty()) {
+            cache(visited, source, stamp);
+        }
+        return source;
+    }
+
+    /**
+     * Invalidate the cached ACL source for a resource and all of its descendants
+     * @param identifier the resource identifier
+     */
+    public synchronized void invalidate(final IRI identifier) {
+        generation += 1L;
+        final String id = identifier.getIRIString();
+        if (sources.remove(id) != null) {
+            size -= 1L;
+        }
+        // Descendants sort between "id/" and "id0", since '0' immediately follows '/'
+        final ConcurrentNavigableMap<String, Source> descendants = sources.subMap(id + "/", id + "0");
+        size -= descendants.size();
+        descendants.clear();
+    }
+
+    /**
+     * Invalidate all cached ACL sources
+     */
+    public synchronized void invalidateAll() {
+        generation += 1L;
+        sources.clear();
+        size = 0L;
+    }
+
+    /**
+     * Get the number of resources currently cached
+     * @return the number of cached resources
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    private synchronized void cache(final List<IRI> visited, final Optional<IRI> source, final long stamp) {
+        // Don't cache a source that was resolved before an invalidation
+        if (stamp != generation) {
+            return;
+        }
+        // If there are more entries than fit, keep those nearest the root, which are shared most widely
+        final int count = (int) Math.min(visited.size(), maximumSize);
+        final Set<String> added = new HashSet<>();
+        for (final IRI id : visited.subList(visited.size() - count, visited.size())) {
+            if (sources.put(id.getIRIString(), new Source(source)) == null) {
+                size += 1L;
+            }
+            added.add(id.getIRIString());
+        }
+        evict(added);
+    }
+
+    private void evict(final Set<String> added) {
+        // Two sweeps clear every mark, so at most two sweeps are needed to find an entry to evict
+        long remaining = 2L * (size + 1L);
+        while (size > maximumSize && remaining-- > 0L) {
+            Map.Entry<String, Source> entry = hand == null ? null : sources.higherEntry(hand);
+            if (entry == null) {
+                entry = sources.firstEntry();
+                if (entry == null) {
+                    return;
+                }
+            }
+            hand = entry.getKey();
+            final Source candidate = entry.getValue();
+            if (added.contains(hand)) {
+                continue;
+            }
+            if (candidate.referenced) {
+                candidate.referenced = false;
+            } else if (sources.remove(hand, candidate)) {
+                size -= 1L;
+            }
+        }
+    }
+
+    private static final class Source {
+        private final Optional<IRI> source;
+        private volatile boolean referenced = false;
+
+        Source(final Optional<IRI> source) {
+            this.source = source;
+        }
+
+        void touch() {
+            // Avoid writing to a shared entry when it is already marked
+            if (!referenced) {
+                referenced = true;
+            }
+        }
+    }
+}
@@ -13,41 +13,364 @@
  */
 package org.trellisldp.spi;
 
-import static com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS;
+import static com.fasterxml.jackson.core.JsonEncoding.UTF8;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
-import static org.trellisldp.spi.ActivityStreamMessage.from;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.apache.commons.rdf.api.IRI;
+import org.trellisldp.vocabulary.AS;
+
 /**
+ * Serializes an Event as an ActivityStream 2.0 JSON object, using Jackson's streaming API.
+ *
+ * <p>The same structure can also be written in a compact, binary CBOR form, which additionally
+ * includes the event creation time as {@code published}, so that it can be decoded back into an
+ * Event. Binary data starts with the CBOR self-describe tag (0xD9D9F7), which identifies the format.</p>
+ *
+ * @see <a href="https://www.w3.org/TR/activitystreams-core/">Activity Streams 2.0</a>
+ *
  * @author acoburn
  * @deprecated Please use the org.trellisldp.api package instead
  */
 @Deprecated
 final class ActivityStreamSerializer {
 
-    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String CONTEXT = "https://www.w3.org/ns/activitystreams";
 
-    static {
-        MAPPER.configure(WRITE_DATES_AS_TIMESTAMPS, false);
-        MAPPER.registerModule(new JavaTimeModule());
-    }
+    private static final JsonFactory FACTORY = new JsonFactory()
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private static final JsonFactory CBOR_FACTORY = new CBORFactory()
+        .enable(CBORGenerator.Feature.WRITE_TYPE_HEADER)
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private static final byte[] CBOR_HEADER = {(byte) 0xD9, (byte) 0xD9, (byte) 0xF7};
 
     /**
      * Serialize the Event
      * @return the Event as a JSON string
      */
     static Optional<String> serialize(final Event event) {
+        final StringWriter writer = new StringWriter();
+        try (final JsonGenerator generator = FACTORY.createGenerator(writer)) {
+            write(event, generator);
+        } catch (final IOException ex) {
+            return empty();
+        }
+        return of(writer.toString());
+    }
+
+    /**
+     * Serialize the Event as UTF-8 encoded JSON
+     * @param event the event
+     * @param output the output stream, which is not closed
+     */
+    static void serialize(final Event event, final OutputStream output) {
+        try (final JsonGenerator generator = FACTORY.createGenerator(output, UTF8)) {
+            write(event, generator);
+        } catch (final IOException ex) {
+            throw new RuntimeRepositoryException("Error serializing event", ex);
+        }
+    }
+
+    /**
+     * Serialize the Event as UTF-8 encoded JSON
+     * @param event the event
+     * @param buffer the buffer; if there is not enough space, its position is left unchanged
+     * @return the number of bytes written
+     * @throws BufferOverflowException if there is not enough space in the buffer
+     */
+    static int serialize(final Event event, final ByteBuffer buffer) {
+        final int start = buffer.position();
         try {
-            return of(MAPPER.writeValueAsString(from(event)));
-        } catch (final JsonProcessingException ex) {
+            serialize(event, new ByteBufferOutputStream(buffer));
+        } catch (final BufferOverflowException ex) {
+            buffer.position(start);
+            throw ex;
+        }
+        return buffer.position() - start;
+    }
+
+    /**
+     * Serialize a number of Events as UTF-8 encoded JSON
+     * @param events the events
+     * @param output the output stream, which is not closed
+     * @param ndjson whether to write newline-delimited JSON objects, rather than a single JSON array
+     */
+    static void serializeAll(final Collection<? extends Event> events, final OutputStream output,
+            final boolean ndjson) {
+        try (final JsonGenerator generator = FACTORY.createGenerator(output, UTF8)) {
+            if (ndjson) {
+                generator.setRootValueSeparator(null);
+                for (final Event event : events) {
+                    write(event, generator);
+                    generator.writeRaw('\n');
+                }
+            } else {
+                generator.writeStartArray();
+                for (final Event event : events) {
+                    write(event, generator);
+                }
+                generator.writeEndArray();
+            }
+        } catch (final IOException ex) {
+            throw new RuntimeRepositoryException("Error serializing events", ex);
+        }
+    }
+
+    /**
+     * Serialize the Event in the binary CBOR format
+     * @param event the event
+     * @param output the output stream, which is not closed
+     */
+    static void serializeBinary(final Event event, final OutputStream output) {
+        try (final JsonGenerator generator = CBOR_FACTORY.createGenerator(output)) {
+            write(event, generator, true);
+        } catch (final IOException ex) {
+            throw new RuntimeRepositoryException("Error serializing event", ex);
+        }
+    }
+
+    /**
+     * Serialize the Event in the binary CBOR format
+     * @param event the event
+     * @return the serialized event
+     */
+    static byte[] serializeBinary(final Event event) {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(256);
+        serializeBinary(event, output);
+        return output.toByteArray();
+    }
+
+    /**
+     * Deserialize an Event from the binary CBOR format
+     * @param data the serialized event
+     * @return the event, or an empty value if the data is truncated or is not a valid binary-encoded event
+     */
+    static Optional<Event> deserializeBinary(final byte[] data) {
+        if (data.length < CBOR_HEADER.length || data[0] != CBOR_HEADER[0] || data[1] != CBOR_HEADER[1]
+                || data[2] != CBOR_HEADER[2] || !hasValidLengths(data)) {
+            return empty();
+        }
+        try (final JsonParser parser = CBOR_FACTORY.createParser(data)) {
+            return read(parser);
+        } catch (final IOException | DateTimeParseException | IllegalArgumentException ex) {
+            // Malformed values, such as invalid IRIs, are decoding failures like any other
+            return empty();
+        }
+    }
+
+    /**
+     * Check that no string in the CBOR data declares more bytes than remain in the data: the CBOR parser
+     * allocates a buffer of the declared length before reading a string, so a corrupt length would otherwise
+     * exhaust the heap
+     * @param data the CBOR data
+     * @return whether every declared string length is within the data
+     */
+    private static boolean hasValidLengths(final byte[] data) {
+        int offset = 0;
+        while (offset < data.length) {
+            final int major = (data[offset] & 0xFF) >>> 5;
+            final int info = data[offset] & 0x1F;
+            offset++;
+            long argument = info;
+            if (info == 31) {
+                // an indefinite length item or a break, neither of which has an argument
+                continue;
+            } else if (info > 27) {
+                return false;
+            } else if (info >= 24) {
+                final int size = 1 << (info - 24);
+                if (size > data.length - offset) {
+                    return false;
+                }
+                argument = 0L;
+                for (int i = 0; i < size; ++i) {
+                    argument = (argument << 8) | (data[offset++] & 0xFF);
+                }
+            }
+            // Byte and text strings are followed by their content; all other items are followed by the next item
+            if (major == 2 || major == 3) {
+                if (argument < 0L || argument > data.length - offset) {
+                    return false;
+                }
+                offset += (int) argument;
+            }
+        }
+        return true;
+    }
+
+    private static void write(final Event event, final JsonGenerator generator) throws IOException {
+        write(event, generator, false);
+    }
+
+    private static void write(final Event event, final JsonGenerator generator, final boolean published)
+            throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("id", event.getIdentifier().getIRIString());
+        generator.writeArrayFieldStart("type");
+        for (final IRI type : event.getTypes()) {
+            final String value = type.getIRIString();
+            generator.writeString(value.startsWith(AS.URI) ? value.substring(AS.URI.length()) : value);
+        }
+        generator.writeEndArray();
+        if (event.getInbox().isPresent()) {
+            generator.writeStringField("inbox", event.getInbox().get().getIRIString());
+        }
+        writeArray(generator, "actor", event.getAgents());
+        if (event.getTarget().isPresent()) {
+            generator.writeObjectFieldStart("object");
+            generator.writeStringField("id", event.getTarget().get().getIRIString());
+            writeArray(generator, "type", event.getTargetTypes());
+            generator.writeEndObject();
+        }
+        if (published) {
+            generator.writeStringField("published", event.getCreated().toString());
+        }
+        generator.writeStringField("@context", CONTEXT);
+        generator.writeEndObject();
+    }
+
+    private static void writeArray(final JsonGenerator generator, final String field, final Collection<IRI> values)
+            throws IOException {
+        if (!values.isEmpty()) {
+            generator.writeArrayFieldStart(field);
+            for (final IRI value : values) {
+                generator.writeString(value.getIRIString());
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    private static Optional<Event> read(final JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
             return empty();
         }
+        String id = null;
+        String inbox = null;
+        String target = null;
+        String published = null;
+        List<String> types = new ArrayList<>();
+        List<String> actors = new ArrayList<>();
+        List<String> targetTypes = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("id".equals(field)) {
+                id = readString(parser);
+            } else if ("type".equals(field)) {
+                types = readArray(parser);
+            } else if ("inbox".equals(field)) {
+                inbox = readString(parser);
+            } else if ("actor".equals(field)) {
+                actors = readArray(parser);
+            } else if ("published".equals(field)) {
+                published = readString(parser);
+            } else if ("object".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String objectField = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("id".equals(objectField)) {
+                        target = readString(parser);
+                    } else if ("type".equals(objectField)) {
+                        targetTypes = readArray(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                requireEnd(parser, JsonToken.END_OBJECT);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        // Truncated input ends without closing the object
+        requireEnd(parser, JsonToken.END_OBJECT);
+        if (id == null || published == null) {
+            return empty();
+        }
+        return of(new ImmutableEvent(createIRI(id), toIRIs(actors, false), target == null ? null : createIRI(target),
+                    toIRIs(types, true), toIRIs(targetTypes, false), Instant.parse(published),
+                    inbox == null ? null : createIRI(inbox)));
+    }
+
+    private static List<String> readArray(final JsonParser parser) throws IOException {
+        final List<String> values = new ArrayList<>();
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                values.add(readString(parser));
+            }
+        } else {
+            parser.skipChildren();
+        }
+        return values;
+    }
+
+    private static String readString(final JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) {
+            throw new JsonParseException(parser, "Expected a string value, but found: " + parser.currentToken());
+        }
+        return parser.getText();
+    }
+
+    private static void requireEnd(final JsonParser parser, final JsonToken token) throws IOException {
+        if (parser.currentToken() != token) {
+            throw new JsonParseException(parser, "Unexpected end of input");
+        }
+    }
+
+    private static List<IRI> toIRIs(final List<String> values, final boolean activityTypes) {
+        final List<IRI> iris = new ArrayList<>(values.size());
+        for (final String value : values) {
+            // ActivityStreams types are written in their compact form
+            iris.add(createIRI(activityTypes && value.indexOf(':') < 0 ? AS.URI + value : value));
+        }
+        return iris;
+    }
+
+    private static IRI createIRI(final String value) {
+        return RDFUtils.getInstance().createIRI(value);
+    }
+
+    /**
+     * An output stream that writes directly into a byte buffer
+     */
+    private static final class ByteBufferOutputStream extends OutputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferOutputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(final int b) {
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) {
+            buffer.put(bytes, offset, length);
+        }
     }
 
     private ActivityStreamSerializer() {
@@ -0,0 +1,315 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.stream.Collectors.toList;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An {@link EventService} decorator that emits events asynchronously, in batches.
+ *
+ * <p>Events are placed on a bounded queue and delivered to the underlying service, via
+ * {@link EventService#emitAll}, by a single background thread. When the queue is full, the
+ * {@link OverflowPolicy} determines whether the caller blocks, the oldest queued event is dropped
+ * or the event is passed directly to an overflow service, such as a durable outbox. A caller that is
+ * blocked on a full queue gives up, with an {@link IllegalStateException}, once the service is closed.
+ * Closing this service stops it accepting events and then delivers any events that remain on the queue.</p>
+ *
+ * <p>If the underlying service fails to emit a batch, the batch is passed to the overflow service, when
+ * one is configured, and is otherwise counted as failed.</p>
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+public class AsyncEventService implements EventService, AutoCloseable {
+
+    /**
+     * The behavior when an event is emitted while the queue is full
+     */
+    public enum OverflowPolicy {
+        /**
+         * Block the caller until there is space on the queue
+         */
+        BLOCK,
+        /**
+         * Drop the oldest event on the queue
+         */
+        DROP_OLDEST,
+        /**
+         * Emit the event synchronously to the overflow service
+         */
+        SPILL
+    }
+
+    private final EventService delegate;
+    private final EventService overflow;
+    private final OverflowPolicy policy;
+    private final int batchSize;
+    private final BlockingQueue<Pending> queue;
+    private final Thread worker;
+
+    private final LongAdder emitted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder latency = new LongAdder();
+    private final AtomicLong maxLatency = new AtomicLong();
+    // Held for reading while an event is queued, and for writing once the service is closed
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean closed = false;
+
+    /**
+     * Create an asynchronous event service
+     * @param delegate the underlying event service
+     * @param capacity the maximum number of queued events
+     * @param batchSize the maximum number of events delivered at once
+     * @param policy the overflow policy, which may not be {@link OverflowPolicy#SPILL}
+     */
+    public AsyncEventService(final EventService delegate, final int capacity, final int batchSize,
+            final OverflowPolicy policy) {
+        this(delegate, capacity, batchSize, policy, null);
+    }
+
+    /**
+     * Create an asynchronous event service
+     * @param delegate the underlying event service
+     * @param capacity the maximum number of queued events
+     * @param batchSize the maximum number of events delivered at once
+     * @param policy the overflow policy
+     * @param overflow the service that receives events when the queue is full, if the policy is
+     *                 {@link OverflowPolicy#SPILL}, and any batch that the underlying service fails to
+     *                 emit; this may be null for other policies
+     */
+    public AsyncEventService(final EventService delegate, final int capacity, final int batchSize,
+            final OverflowPolicy policy, final EventService overflow) {
+        requireNonNull(delegate, "The delegate event service may not be null!");
+        requireNonNull(policy, "The overflow policy may not be null!");
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The queue capacity must be a positive value!");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be a positive value!");
+        }
+        if (policy == OverflowPolicy.SPILL && overflow == null) {
+            throw new IllegalArgumentException("An overflow event service is required to spill events!");
+        }
+        this.delegate = delegate;
+        this.overflow = overflow;
+        this.policy = policy;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.worker = new Thread(this::run, "trellis-async-events");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public void emit(final Event event) {
+        requireNonNull(event, "The event may not be null!");
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            enqueue(new Pending(event));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stop accepting events and deliver any events that remain on the queue
+     */
+    @Override
+    public void close() {
+        closed = true;
+        // Wait for any caller that is still queuing an event, so that nothing is queued after the final drain
+        lock.writeLock().lock();
+        lock.writeLock().unlock();
+        try {
+            worker.join();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeRepositoryException("Interrupted while closing the event service", ex);
+        }
+        // Deliver anything queued after the worker last checked the queue
+        final List<Pending> remaining = new ArrayList<>();
+        while (queue.drainTo(remaining, batchSize) > 0) {
+            deliver(remaining);
+            remaining.clear();
+        }
+    }
+
+    /**
+     * Get the number of events currently queued
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Get the number of events delivered to the underlying service
+     * @return the number of emitted events
+     */
+    public long getEmittedCount() {
+        return emitted.sum();
+    }
+
+    /**
+     * Get the number of events dropped because the queue was full
+     * @return the number of dropped events
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Get the number of events passed to the overflow service
+     * @return the number of spilled events, including those from failed batches
+     */
+    public long getSpilledCount() {
+        return spilled.sum();
+    }
+
+    /**
+     * Get the number of events that could not be emitted to either the underlying or the overflow service
+     * @return the number of failed events
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Get the average time between an event being queued and its delivery
+     * @return the average emit latency
+     */
+    public Duration getAverageLatency() {
+        final long count = emitted.sum();
+        return count == 0L ? Duration.ZERO : Duration.ofNanos(latency.sum() / count);
+    }
+
+    /**
+     * Get the longest time between an event being queued and its delivery
+     * @return the maximum emit latency
+     */
+    public Duration getMaxLatency() {
+        return Duration.ofNanos(maxLatency.get());
+    }
+
+    private void enqueue(final Pending pending) {
+        switch (policy) {
+            case DROP_OLDEST:
+                while (!queue.offer(pending)) {
+                    if (queue.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+                break;
+            case SPILL:
+                if (!queue.offer(pending)) {
+                    overflow.emit(pending.event);
+                    spilled.increment();
+                }
+                break;
+            default:
+                try {
+                    // Wait in short steps, so that closing the service releases a blocked caller
+                    while (!queue.offer(pending, 100L, MILLISECONDS)) {
+                        checkOpen();
+                    }
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeRepositoryException("Interrupted while queuing an event", ex);
+                }
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The event service has been closed");
+        }
+    }
+
+    private void run() {
+        final List<Pending> batch = new ArrayList<>(batchSize);
+        while (true) {
+            final Pending first;
+            try {
+                first = queue.poll(100L, MILLISECONDS);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first == null) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            deliver(batch);
+            batch.clear();
+        }
+    }
+
+    private void deliver(final List<Pending> batch) {
+        try {
+            delegate.emitAll(batch.stream().map(pending -> pending.event).collect(toList()));
+        } catch (final RuntimeException ex) {
+            spill(batch);
+            return;
+        }
+        final long now = System.nanoTime();
+        for (final Pending pending : batch) {
+            final long elapsed = now - pending.queued;
+            latency.add(elapsed);
+            maxLatency.accumulateAndGet(elapsed, Math::max);
+        }
+        emitted.add(batch.size());
+    }
+
+    private void spill(final List<Pending> batch) {
+        if (overflow != null) {
+            try {
+                overflow.emitAll(batch.stream().map(pending -> pending.event).collect(toList()));
+                spilled.add(batch.size());
+                return;
+            } catch (final RuntimeException ex) {
+                // Fall through and count the batch as failed
+            }
+        }
+        failed.add(batch.size());
+    }
+
+    private static final class Pending {
+        private final Event event;
+        private final long queued = System.nanoTime();
+
+        Pending(final Event event) {
+            this.event = event;
+        }
+    }
+}
@@ -13,17 +13,26 @@
  */
 package org.trellisldp.spi;
 
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
 import static java.util.Collections.unmodifiableSet;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+import static org.trellisldp.spi.AccessModes.NONE;
+import static org.trellisldp.vocabulary.RDF.type;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.rdf.api.BlankNodeOrIRI;
 import org.apache.commons.rdf.api.Graph;
 import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Triple;
 import org.trellisldp.vocabulary.ACL;
 
 /**
@@ -36,6 +45,9 @@ import org.trellisldp.vocabulary.ACL;
  * An ACL resource may contain multiple acl:Authorization sections. In an LDP context, this may be represented with
  * ldp:contains triples. Another common pattern is to refer to the acl:Authorization sections with blank nodes.
  *
+ * The WebAC access modes are held as a bitmask (see {@link AccessModes}) and empty or single-valued properties
+ * share immutable sets. {@link #allFrom(Graph)} extracts every acl:Authorization in a graph in a single pass.
+ *
  * @see <a href="https://www.w3.org/wiki/WebAccessControl">W3C WebAccessControl</a>
  * and <a href="https://github.com/solid/web-access-control-spec">Solid WebAC specification</a>
  *
@@ -46,7 +58,13 @@ import org.trellisldp.vocabulary.ACL;
 public class Authorization {
 
     private final BlankNodeOrIRI identifier;
-    private final Map<IRI, Set<IRI>> dataMap = new HashMap<>();
+    private final int modes;
+    private final Set<IRI> otherModes;
+    private final Set<IRI> agents;
+    private final Set<IRI> agentClasses;
+    private final Set<IRI> agentGroups;
+    private final Set<IRI> accessTo;
+    private final Set<IRI> defaults;
 
     /**
      * Create an Authorization object from a graph and an identifier
@@ -58,27 +76,51 @@ public class Authorization {
         return new Authorization(identifier, graph);
     }
 
+    /**
+     * Create Authorization objects for every acl:Authorization in a graph
+     *
+     * Equal IRIs and equal sets of IRIs are shared among the resulting objects.
+     *
+     * @param graph the graph
+     * @return the Authorization objects, in the order in which they are first found in the graph
+     */
+    public static List<Authorization> allFrom(final Graph graph) {
+        requireNonNull(graph, "The input graph may not be null!");
+
+        final Map<BlankNodeOrIRI, Data> data = new LinkedHashMap<>();
+        final Set<BlankNodeOrIRI> authorizations = new HashSet<>();
+        final Map<Object, Object> interned = new HashMap<>();
+        graph.stream().forEach(triple -> {
+            if (type.equals(triple.getPredicate()) && ACL.Authorization.equals(triple.getObject())) {
+                authorizations.add(triple.getSubject());
+                data.computeIfAbsent(triple.getSubject(), k -> new Data(interned));
+            } else if (Data.accepts(triple)) {
+                data.computeIfAbsent(triple.getSubject(), k -> new Data(interned)).add(triple);
+            }
+        });
+        return data.entrySet().stream().filter(e -> authorizations.contains(e.getKey()))
+            .map(e -> new Authorization(e.getKey(), e.getValue())).collect(toList());
+    }
+
     /**
      * Create an Authorization object from an RDF graph
      * @param identifier the subject IRI
      * @param graph the RDF graph
      */
     public Authorization(final BlankNodeOrIRI identifier, final Graph graph) {
-        requireNonNull(identifier, "The Authorization identifier may not be null!");
-        requireNonNull(graph, "The input graph may not be null!");
+        this(requireNonNull(identifier, "The Authorization identifier may not be null!"),
+                load(identifier, requireNonNull(graph, "The input graph may not be null!")));
+    }
 
+    private Authorization(final BlankNodeOrIRI identifier, final Data data) {
         this.identifier = identifier;
-
-        this.dataMap.put(ACL.agent, new HashSet<>());
-        this.dataMap.put(ACL.agentClass, new HashSet<>());
-        this.dataMap.put(ACL.agentGroup, new HashSet<>());
-        this.dataMap.put(ACL.mode, new HashSet<>());
-        this.dataMap.put(ACL.accessTo, new HashSet<>());
-        this.dataMap.put(ACL.default_, new HashSet<>());
-
-        graph.stream(identifier, null, null).filter(triple -> dataMap.containsKey(triple.getPredicate()))
-            .filter(triple -> triple.getObject() instanceof IRI)
-            .forEach(triple -> dataMap.get(triple.getPredicate()).add((IRI) triple.getObject()));
+        this.modes = data.modes;
+        this.otherModes = data.freeze(data.otherModes);
+        this.agents = data.freeze(data.agents);
+        this.agentClasses = data.freeze(data.agentClasses);
+        this.agentGroups = data.freeze(data.agentGroups);
+        this.accessTo = data.freeze(data.accessTo);
+        this.defaults = data.freeze(data.defaults);
     }
 
     /**
@@ -94,7 +136,7 @@ public class Authorization {
      * @return the Agent values
      */
     public Set<IRI> getAgent() {
-        return unmodifiableSet(dataMap.get(ACL.agent));
+        return agents;
     }
 
     /**
@@ -102,7 +144,7 @@ public class Authorization {
      * @return the Agent class values
      */
     public Set<IRI> getAgentClass() {
-        return unmodifiableSet(dataMap.get(ACL.agentClass));
+        return agentClasses;
     }
 
     /**
@@ -110,7 +152,7 @@ public class Authorization {
      * @return the Agent groups values
      */
     public Set<IRI> getAgentGroup() {
-        return unmodifiableSet(dataMap.get(ACL.agentGroup));
+        return agentGroups;
     }
 
     /**
@@ -118,7 +160,20 @@ public class Authorization {
      * @return the access mode values
      */
     public Set<IRI> getMode() {
-        return unmodifiableSet(dataMap.get(ACL.mode));
+        if (otherModes.isEmpty()) {
+            return AccessModes.toModes(modes);
+        }
+        final Set<IRI> all = new LinkedHashSet<>(AccessModes.toModes(modes));
+        all.addAll(otherModes);
+        return unmodifiableSet(all);
+    }
+
+    /**
+     * Retrieve the WebAC access modes that are associated with this Authorization
+     * @return the access modes, as a bitmask of {@link AccessModes} values
+     */
+    public int getAccessModes() {
+        return modes;
     }
 
     /**
@@ -126,7 +181,7 @@ public class Authorization {
      * @return the accessTo values
      */
     public Set<IRI> getAccessTo() {
-        return unmodifiableSet(dataMap.get(ACL.accessTo));
+        return accessTo;
     }
 
     /**
@@ -134,6 +189,79 @@ public class Authorization {
      * @return the resource identifiers
      */
     public Set<IRI> getDefault() {
-        return unmodifiableSet(dataMap.get(ACL.default_));
+        return defaults;
+    }
+
+    private static Data load(final BlankNodeOrIRI identifier, final Graph graph) {
+        final Data data = new Data(null);
+        graph.stream(identifier, null, null).filter(Data::accepts).forEach(data::add);
+        return data;
+    }
+
+    /**
+     * The mutable state used while reading an Authorization from a graph
+     */
+    private static final class Data {
+        private final Map<Object, Object> interned;
+        private int modes = NONE;
+        private Set<IRI> otherModes;
+        private Set<IRI> agents;
+        private Set<IRI> agentClasses;
+        private Set<IRI> agentGroups;
+        private Set<IRI> accessTo;
+        private Set<IRI> defaults;
+
+        Data(final Map<Object, Object> interned) {
+            this.interned = interned;
+        }
+
+        static boolean accepts(final Triple triple) {
+            final IRI predicate = triple.getPredicate();
+            return triple.getObject() instanceof IRI && (ACL.mode.equals(predicate) || ACL.agent.equals(predicate)
+                    || ACL.agentClass.equals(predicate) || ACL.agentGroup.equals(predicate)
+                    || ACL.accessTo.equals(predicate) || ACL.default_.equals(predicate));
+        }
+
+        void add(final Triple triple) {
+            final IRI predicate = triple.getPredicate();
+            final IRI object = intern((IRI) triple.getObject());
+            if (ACL.mode.equals(predicate)) {
+                final int mode = AccessModes.of(object);
+                if (mode != NONE) {
+                    modes |= mode;
+                } else {
+                    otherModes = add(otherModes, object);
+                }
+            } else if (ACL.agent.equals(predicate)) {
+                agents = add(agents, object);
+            } else if (ACL.agentClass.equals(predicate)) {
+                agentClasses = add(agentClasses, object);
+            } else if (ACL.agentGroup.equals(predicate)) {
+                agentGroups = add(agentGroups, object);
+            } else if (ACL.accessTo.equals(predicate)) {
+                accessTo = add(accessTo, object);
+            } else if (ACL.default_.equals(predicate)) {
+                defaults = add(defaults, object);
+            }
+        }
+
+        Set<IRI> freeze(final Set<IRI> values) {
+            if (values == null) {
+                return emptySet();
+            }
+            final Set<IRI> frozen = values.size() == 1 ? singleton(values.iterator().next()) : unmodifiableSet(values);
+            return intern(frozen);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T intern(final T value) {
+            return interned == null ? value : (T) interned.computeIfAbsent(value, k -> k);
+        }
+
+        private static Set<IRI> add(final Set<IRI> values, final IRI value) {
+            final Set<IRI> set = values == null ? new HashSet<>() : values;
+            set.add(value);
+            return set;
+        }
     }
 }
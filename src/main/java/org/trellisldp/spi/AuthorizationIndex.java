@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Collections.emptyMap;
+import static org.trellisldp.spi.AccessModes.NONE;
+import static org.trellisldp.spi.RDFUtils.getInstance;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.apache.commons.rdf.api.IRI;
+import org.trellisldp.vocabulary.ACL;
+import org.trellisldp.vocabulary.FOAF;
+import org.trellisldp.vocabulary.Trellis;
+
+/**
+ * An index of the access modes granted by a collection of {@link Authorization} objects,
+ * keyed by agent, agent class and agent group.
+ *
+ * <p>The {@code foaf:Agent} class applies to every agent, and the {@code acl:AuthenticatedAgent} class
+ * applies to every agent other than {@link Trellis#AnonymousUser}.</p>
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+final class AuthorizationIndex {
+
+    static final IRI AUTHENTICATED_AGENT = getInstance().createIRI(ACL.URI + "AuthenticatedAgent");
+
+    private final Map<IRI, Integer> agents;
+    private final Map<IRI, Integer> agentClasses;
+    private final Map<IRI, Integer> groups;
+
+    private AuthorizationIndex(final Map<IRI, Integer> agents, final Map<IRI, Integer> agentClasses,
+            final Map<IRI, Integer> groups) {
+        this.agents = agents;
+        this.agentClasses = agentClasses;
+        this.groups = groups;
+    }
+
+    /**
+     * Compile a collection of authorizations into an index
+     * @param authorizations the authorizations
+     * @return the index
+     */
+    static AuthorizationIndex compile(final Collection<Authorization> authorizations) {
+        final Map<IRI, Integer> agents = new HashMap<>();
+        final Map<IRI, Integer> agentClasses = new HashMap<>();
+        final Map<IRI, Integer> groups = new HashMap<>();
+        for (final Authorization auth : authorizations) {
+            final int modes = auth.getAccessModes();
+            if (modes != NONE) {
+                auth.getAgent().forEach(agent -> agents.merge(agent, modes, (a, b) -> a | b));
+                auth.getAgentClass().forEach(agentClass -> agentClasses.merge(agentClass, modes, (a, b) -> a | b));
+                auth.getAgentGroup().forEach(group -> groups.merge(group, modes, (a, b) -> a | b));
+            }
+        }
+        return new AuthorizationIndex(compact(agents), compact(agentClasses), compact(groups));
+    }
+
+    /**
+     * Get the access modes granted to an agent
+     * @param agent the agent
+     * @param groupResolver a function that resolves the groups of which an agent is a member;
+     *                      this is only called if the index refers to any groups
+     * @return the access modes, as a bitmask
+     */
+    int getAccessModes(final IRI agent, final Function<IRI, Set<IRI>> groupResolver) {
+        int modes = agents.getOrDefault(agent, NONE) | agentClasses.getOrDefault(FOAF.Agent, NONE);
+        if (!Trellis.AnonymousUser.equals(agent)) {
+            modes |= agentClasses.getOrDefault(AUTHENTICATED_AGENT, NONE);
+        }
+        if (!groups.isEmpty()) {
+            for (final IRI group : groupResolver.apply(agent)) {
+                modes |= groups.getOrDefault(group, NONE);
+            }
+        }
+        return modes;
+    }
+
+    private static Map<IRI, Integer> compact(final Map<IRI, Integer> data) {
+        return data.isEmpty() ? emptyMap() : data;
+    }
+}
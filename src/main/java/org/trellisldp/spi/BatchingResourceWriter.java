@@ -0,0 +1,198 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import org.apache.commons.rdf.api.Dataset;
+import org.apache.commons.rdf.api.IRI;
+
+/**
+ * A write pipeline that groups many {@link ResourceService#put} operations into a single call to
+ * {@link ResourceService#putAll}, so that a backend can commit them in one transaction.
+ *
+ * <p>A batch is written as soon as it holds {@code batchSize} distinct resources, or once the
+ * first resource in the batch has waited for {@code linger}, whichever comes first. A batch holds
+ * at most one dataset for each resource: if the same resource is written again, the pending batch
+ * is written first, so that every dataset is written, in order.</p>
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+public class BatchingResourceWriter implements AutoCloseable {
+
+    private final ResourceService service;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    private Map<IRI, PendingWrite> batch = new LinkedHashMap<>();
+    private boolean closed = false;
+
+    /**
+     * Create a batching resource writer
+     * @param service the resource service
+     * @param batchSize the maximum number of resources written in a single batch
+     * @param linger the maximum time that a resource waits for a batch to fill
+     */
+    public BatchingResourceWriter(final ResourceService service, final int batchSize, final Duration linger) {
+        requireNonNull(service, "The resource service may not be null!");
+        requireNonNull(linger, "The linger time may not be null!");
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be a positive value!");
+        }
+        this.service = service;
+        this.batchSize = batchSize;
+        this.lingerNanos = linger.toNanos();
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "trellis-batching-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Any pending batch is written when the writer is closed, so a lingering flush is not needed
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Put a resource into the repository as part of a batch
+     * @param identifier the identifier for the new resource
+     * @param dataset the dataset
+     * @return whether the resource was added, once its batch has been written
+     */
+    public synchronized CompletionStage<Boolean> put(final IRI identifier, final Dataset dataset) {
+        requireNonNull(identifier, "The identifier may not be null!");
+        requireNonNull(dataset, "The dataset may not be null!");
+        if (closed) {
+            throw new IllegalStateException("The batching writer has been closed");
+        }
+        if (batch.containsKey(identifier)) {
+            final Map<IRI, PendingWrite> pending = swap();
+            scheduler.execute(() -> write(pending));
+        }
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        final boolean first = batch.isEmpty();
+        batch.put(identifier, new PendingWrite(dataset, future));
+        if (batch.size() >= batchSize) {
+            final Map<IRI, PendingWrite> full = swap();
+            scheduler.execute(() -> write(full));
+        } else if (first) {
+            final Map<IRI, PendingWrite> current = batch;
+            scheduler.schedule(() -> flush(current), lingerNanos, NANOSECONDS);
+        }
+        return future;
+    }
+
+    /**
+     * Write any pending resources without waiting for the batch to fill
+     * @return a stage that completes once the pending resources have been written
+     * @throws IllegalStateException if the writer has been closed
+     */
+    public synchronized CompletionStage<Void> flush() {
+        if (closed) {
+            throw new IllegalStateException("The batching writer has been closed");
+        }
+        final Map<IRI, PendingWrite> current = swap();
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        scheduler.execute(() -> {
+            write(current);
+            future.complete(null);
+        });
+        return future;
+    }
+
+    /**
+     * Write any pending resources and stop accepting new resources
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            final Map<IRI, PendingWrite> current = swap();
+            scheduler.execute(() -> write(current));
+        }
+        scheduler.shutdown();
+        try {
+            while (!scheduler.awaitTermination(100L, MILLISECONDS)) {
+                // wait for the final batch to be written
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void flush(final Map<IRI, PendingWrite> expected) {
+        final Map<IRI, PendingWrite> current;
+        synchronized (this) {
+            // Only flush if this batch has not already been written due to its size
+            if (batch != expected) {
+                return;
+            }
+            current = swap();
+        }
+        write(current);
+    }
+
+    private synchronized Map<IRI, PendingWrite> swap() {
+        final Map<IRI, PendingWrite> current = batch;
+        batch = new LinkedHashMap<>();
+        return current;
+    }
+
+    private void write(final Map<IRI, PendingWrite> writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        final Map<IRI, Dataset> datasets = new LinkedHashMap<>();
+        writes.forEach((identifier, pending) -> datasets.put(identifier, pending.dataset));
+        try {
+            final Map<IRI, Boolean> results = service.putAll(datasets);
+            writes.forEach((identifier, pending) ->
+                    pending.complete(results.getOrDefault(identifier, false)));
+        } catch (final RuntimeException ex) {
+            writes.values().forEach(pending -> pending.fail(ex));
+        }
+    }
+
+    private static final class PendingWrite {
+        private final Dataset dataset;
+        private final CompletableFuture<Boolean> future;
+
+        PendingWrite(final Dataset dataset, final CompletableFuture<Boolean> future) {
+            this.dataset = dataset;
+            this.future = future;
+        }
+
+        void complete(final Boolean result) {
+            future.complete(result);
+        }
+
+        void fail(final Throwable cause) {
+            future.completeExceptionally(cause);
+        }
+    }
+}
@@ -14,8 +14,16 @@
 package org.trellisldp.spi;
 
 import static java.util.Collections.emptyMap;
+import static java.util.Locale.ROOT;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -110,6 +118,36 @@ public interface BinaryService {
          */
         Optional<InputStream> getContent(String partition, IRI identifier);
 
+        /**
+         * Get a range of the content of the binary object
+         * @param partition the partition to use
+         * @param identifier the identifier
+         * @param from the offset of the first byte, inclusive
+         * @param to the offset of the last byte, inclusive
+         * @return the content of the binary object in the given range
+         *
+         * <p>Note: the default implementation reads and discards the bytes before the range;
+         * resolvers that support random access should override this method.</p>
+         */
+        default Optional<InputStream> getContent(String partition, IRI identifier, long from, long to) {
+            final long length = BoundedInputStream.rangeLength(from, to);
+            return getContent(partition, identifier).map(stream -> new BoundedInputStream(stream, from, length));
+        }
+
+        /**
+         * Get the content of the binary object as a channel
+         * @param partition the partition to use
+         * @param identifier the identifier
+         * @return the content of the binary object
+         *
+         * <p>Note: file-based resolvers should return a {@link java.nio.channels.FileChannel}, so that
+         * callers can use {@link java.nio.channels.FileChannel#transferTo} to send a range of the content
+         * without copying it through the heap.</p>
+         */
+        default Optional<ReadableByteChannel> getChannel(String partition, IRI identifier) {
+            return getContent(partition, identifier).map(Channels::newChannel);
+        }
+
         /**
          * Check whether the binary object exists
          * @param partition the partition to use
@@ -137,6 +175,23 @@ public interface BinaryService {
          */
         void setContent(String partition, IRI identifier, InputStream stream, Map<String, String> metadata);
 
+        /**
+         * Set the content of the binary object, along with metadata that is computed from that content
+         * @param partition the partition to use
+         * @param identifier the identifier
+         * @param stream the content
+         * @param metadata any user metadata
+         * @param computed supplies further metadata, such as digest values, once the entire stream has been read
+         *
+         * <p>Note: the computed metadata must be stored together with the content, so that it never describes
+         * any other content written to the same identifier. This is only called for resolvers that
+         * {@link #supportsMetadata}; the default implementation ignores the computed metadata.</p>
+         */
+        default void setContent(String partition, IRI identifier, InputStream stream, Map<String, String> metadata,
+                Supplier<Map<String, String>> computed) {
+            setContent(partition, identifier, stream, metadata);
+        }
+
         /**
          * Remove the content from the datastore
          * @param partition the partition to use
@@ -144,6 +199,38 @@ public interface BinaryService {
          */
         void purgeContent(String partition, IRI identifier);
 
+        /**
+         * Get the metadata of the binary object
+         * @param partition the partition to use
+         * @param identifier the identifier
+         * @return the stored metadata, including any stored digest values
+         *
+         * <p>Note: the default implementation does not store metadata and returns an empty map.</p>
+         */
+        default Map<String, String> getMetadata(String partition, IRI identifier) {
+            return emptyMap();
+        }
+
+        /**
+         * Replace the metadata of an existing binary object, without changing its content
+         * @param partition the partition to use
+         * @param identifier the identifier
+         * @param metadata the metadata
+         *
+         * <p>Note: the default implementation does not store metadata.</p>
+         */
+        default void setMetadata(String partition, IRI identifier, Map<String, String> metadata) {
+            // metadata is not stored by default
+        }
+
+        /**
+         * Test whether the resolver stores metadata, including metadata that is computed as content is written
+         * @return true if the resolver stores metadata; false otherwise
+         */
+        default Boolean supportsMetadata() {
+            return false;
+        }
+
         /**
          * Test whether the resolver supports multipart uploads
          * @return true if the resolver supports multipart uploads; false otherwise
@@ -165,6 +252,10 @@ public interface BinaryService {
          * @param partNumber the part number
          * @param content the content to upload
          * @return a digest value returned for each part; this value is used later wich completeUpload()
+         *
+         * <p>Note: implementations must allow different parts of the same upload to be uploaded concurrently.
+         * Uploading a part number again replaces the earlier content of that part. The returned digest should
+         * be computed as the part is written, so that parts can be verified without being read again.</p>
          */
         String uploadPart(String identifier, Integer partNumber, InputStream content);
 
@@ -173,6 +264,12 @@ public interface BinaryService {
          * @param identifier the upload identifier
          * @param partDigests digest values for each part
          * @return a multipart upload object
+         *
+         * <p>Note: the parts are assembled in part number order, and each part must match its digest. This
+         * method may be called once all calls to {@link #uploadPart} for the upload have returned; any part
+         * uploaded concurrently with this method may fail or be ignored. Implementations should ensure
+         * that an upload is completed at most once, and should assemble the object without copying the parts
+         * through memory where the storage allows it.</p>
          */
         MultipartUpload completeUpload(String identifier, Map<Integer, String> partDigests);
 
@@ -207,6 +304,28 @@ public interface BinaryService {
         return getResolver(identifier).flatMap(resolver -> resolver.getContent(partition, identifier));
     }
 
+    /**
+     * Get a range of the content of the binary object
+     * @param partition the partition to use
+     * @param identifier an identifier used for locating the binary object
+     * @param from the offset of the first byte, inclusive
+     * @param to the offset of the last byte, inclusive
+     * @return the content in the given range
+     */
+    default Optional<InputStream> getContent(String partition, IRI identifier, long from, long to) {
+        return getResolver(identifier).flatMap(resolver -> resolver.getContent(partition, identifier, from, to));
+    }
+
+    /**
+     * Get the content of the binary object as a channel
+     * @param partition the partition to use
+     * @param identifier an identifier used for locating the binary object
+     * @return the content
+     */
+    default Optional<ReadableByteChannel> getChannel(String partition, IRI identifier) {
+        return getResolver(identifier).flatMap(resolver -> resolver.getChannel(partition, identifier));
+    }
+
     /**
      * Test whether a binary object exists at the given URI
      * @param partition the partition to use
@@ -224,7 +343,7 @@ public interface BinaryService {
      * @param stream the content
      */
     default void setContent(String partition, IRI identifier, InputStream stream) {
-        getResolver(identifier).ifPresent(resolver -> resolver.setContent(partition, identifier, stream));
+        setContent(partition, identifier, stream, emptyMap());
     }
 
     /**
@@ -233,9 +352,31 @@ public interface BinaryService {
      * @param identifier the binary object identifier
      * @param stream the content
      * @param metadata any user metadata
+     *
+     * <p>Note: if the resolver {@link Resolver#supportsMetadata supports metadata}, digests for the
+     * {@link #supportedAlgorithms} are computed as the content is written and are stored along with it, so
+     * that {@link #calculateDigest} does not need to read the content again. Metadata keys starting with
+     * {@code digest:} are reserved for these values, and are removed from the user metadata.</p>
      */
     default void setContent(String partition, IRI identifier, InputStream stream, Map<String, String> metadata) {
-        getResolver(identifier).ifPresent(resolver -> resolver.setContent(partition, identifier, stream, metadata));
+        final Map<String, String> userMetadata = Digests.withoutDigests(metadata);
+        getResolver(identifier).ifPresent(resolver -> {
+            final Map<String, MessageDigest> digests = resolver.supportsMetadata()
+                ? Digests.create(supportedAlgorithms()) : emptyMap();
+            if (digests.isEmpty()) {
+                resolver.setContent(partition, identifier, stream, userMetadata);
+                return;
+            }
+            final Digests.DigestingInputStream input = new Digests.DigestingInputStream(stream, digests.values());
+            resolver.setContent(partition, identifier, input, userMetadata, () -> {
+                final Map<String, String> values = new HashMap<>();
+                if (input.isComplete()) {
+                    Digests.encode(digests).forEach((algorithm, value) ->
+                            values.put(Digests.metadataKey(algorithm), value));
+                }
+                return values;
+            });
+        });
     }
 
     /**
@@ -255,13 +396,73 @@ public interface BinaryService {
      * @return the digest
      *
      * <p>Note: as per RFC 3230, the digest value is calculated over the entire resource,
-     * not just the HTTP payload.</p>
+     * not just the HTTP payload. A digest value stored when the content was written is used,
+     * if available.</p>
      *
      */
     default Optional<String> calculateDigest(String partition, IRI identifier, String algorithm) {
+        final Optional<String> stored = getResolver(identifier)
+            .map(resolver -> resolver.getMetadata(partition, identifier).get(Digests.metadataKey(algorithm)));
+        if (stored.isPresent()) {
+            return stored;
+        }
         return getContent(partition, identifier).flatMap(stream -> digest(algorithm, stream));
     }
 
+    /**
+     * Calculate several digests for a binary object
+     * @param partition the partition to use
+     * @param identifier the identifier
+     * @param algorithms the algorithms
+     * @return the digest values, keyed by algorithm; an algorithm is omitted if it is not one of the
+     *         {@link #supportedAlgorithms} or if its digest could not be calculated
+     *
+     * <p>Note: stored digest values are used, if available. The remaining md5, sha, sha-256 and sha-512
+     * digests are computed together from a single read of the content, with the base64 encoding defined by
+     * the HTTP Digest Algorithm registry; any other algorithm is calculated separately, with
+     * {@link #calculateDigest}.</p>
+     */
+    default Map<String, String> calculateDigests(String partition, IRI identifier, Set<String> algorithms) {
+        final Set<String> supported = new HashSet<>();
+        supportedAlgorithms().forEach(algorithm -> supported.add(algorithm.toLowerCase(ROOT)));
+        final Map<String, String> results = new HashMap<>();
+        final Map<String, String> stored = getResolver(identifier)
+            .map(resolver -> resolver.getMetadata(partition, identifier)).orElse(emptyMap());
+        final List<String> remaining = new ArrayList<>();
+        for (final String algorithm : algorithms) {
+            if (!supported.contains(algorithm.toLowerCase(ROOT))) {
+                continue;
+            }
+            final String value = stored.get(Digests.metadataKey(algorithm));
+            if (value != null) {
+                results.put(algorithm, value);
+            } else {
+                remaining.add(algorithm);
+            }
+        }
+
+        final Map<String, MessageDigest> digests = Digests.create(remaining);
+        final Map<String, String> computed = new HashMap<>();
+        if (!digests.isEmpty()) {
+            getContent(partition, identifier).ifPresent(stream -> {
+                try {
+                    computed.putAll(Digests.compute(stream, digests));
+                } catch (final IOException ex) {
+                    // As with calculateDigest, a digest that cannot be calculated is omitted
+                }
+            });
+        }
+        for (final String algorithm : remaining) {
+            final String value = computed.get(algorithm.toLowerCase(ROOT));
+            if (value != null) {
+                results.put(algorithm, value);
+            } else if (!digests.containsKey(algorithm.toLowerCase(ROOT))) {
+                calculateDigest(partition, identifier, algorithm).ifPresent(digest -> results.put(algorithm, digest));
+            }
+        }
+        return results;
+    }
+
     /**
      * Get a list of supported algorithms
      * @return the supported digest algorithms
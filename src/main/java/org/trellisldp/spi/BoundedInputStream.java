@@ -0,0 +1,134 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream that reads a range of bytes from another stream.
+ *
+ * <p>The leading bytes are skipped on the first read, and the stream ends once the
+ * range has been read.</p>
+ *
+ * @author acoburn
+ */
+final class BoundedInputStream extends FilterInputStream {
+
+    private long offset;
+    private long remaining;
+
+    /**
+     * Create a bounded input stream
+     * @param stream the underlying stream
+     * @param offset the number of bytes to skip
+     * @param length the maximum number of bytes to read
+     */
+    BoundedInputStream(final InputStream stream, final long offset, final long length) {
+        super(stream);
+        this.offset = offset;
+        this.remaining = length;
+    }
+
+    /**
+     * Check a byte range
+     * @param from the first byte, inclusive
+     * @param to the last byte, inclusive
+     * @return the length of the range
+     */
+    static long rangeLength(final long from, final long to) {
+        if (from < 0L || to < from) {
+            throw new IllegalArgumentException("Invalid byte range: " + from + "-" + to + "!");
+        }
+        return to == Long.MAX_VALUE ? Long.MAX_VALUE - from : to - from + 1L;
+    }
+
+    @Override
+    public int read() throws IOException {
+        seek();
+        if (remaining <= 0L) {
+            return -1;
+        }
+        final int b = in.read();
+        if (b >= 0) {
+            remaining -= 1L;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] buffer, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        seek();
+        if (remaining <= 0L) {
+            return -1;
+        }
+        final int count = in.read(buffer, off, (int) Math.min(len, remaining));
+        if (count > 0) {
+            remaining -= count;
+        }
+        return count;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        seek();
+        if (n <= 0L) {
+            return 0L;
+        }
+        final long skipped = in.skip(Math.min(n, remaining));
+        remaining -= skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (offset > 0L) {
+            return 0;
+        }
+        return (int) Math.min(in.available(), remaining);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(final int readlimit) {
+        // marks are not supported
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("Mark/reset is not supported");
+    }
+
+    private void seek() throws IOException {
+        while (offset > 0L) {
+            final long skipped = in.skip(offset);
+            if (skipped > 0L) {
+                offset -= skipped;
+            } else if (in.read() >= 0) {
+                offset -= 1L;
+            } else {
+                offset = 0L;
+                remaining = 0L;
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Collections.emptySet;
+import static java.util.Objects.requireNonNull;
+import static org.trellisldp.spi.AccessModes.APPEND;
+import static org.trellisldp.spi.AccessModes.CONTROL;
+import static org.trellisldp.spi.AccessModes.READ;
+import static org.trellisldp.spi.AccessModes.WRITE;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.apache.commons.rdf.api.IRI;
+
+/**
+ * An {@link AccessControlService} that compiles the applicable {@link Authorization} objects for
+ * each resource into an index and caches the resulting decisions.
+ *
+ * <p>All four access modes are computed in a single pass over the index and cached, as a bitmask,
+ * for each agent and resource. The decisions for a resource are held in a small, bounded cache of at
+ * most 32 agents, in which new decisions replace those that have not been used recently. The index for
+ * a resource, along with its decisions, is held in a least-recently-used cache and is removed by
+ * {@link #invalidate} when the ACL data for that resource changes. Since an ACL may apply to the descendants of a container,
+ * {@link #invalidateAll} should be used when the effect of a change is not limited to a single resource,
+ * or when group memberships change.</p>
+ *
+ * <p>For a delegated session, the access modes are those granted to both the agent and the delegating
+ * user. Only the WebAC access modes ({@code acl:Read}, {@code acl:Write}, {@code acl:Append} and
+ * {@code acl:Control}) are tracked, so {@link #anyMatch} is not called with any other mode.</p>
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+public class CachingAccessControlService implements AccessControlService {
+
+    private static final long MAX_DECISIONS = 32L;
+
+    private final Function<IRI, ? extends Collection<Authorization>> loader;
+    private final Function<IRI, Set<IRI>> groups;
+    private final long maximumSize;
+
+    private final Map<IRI, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long generation = 0L;
+
+    /**
+     * Create a caching access control service, without support for agent groups
+     * @param loader a function that loads the authorizations applicable to a resource
+     * @param maximumSize the maximum number of resources to cache
+     */
+    public CachingAccessControlService(final Function<IRI, ? extends Collection<Authorization>> loader,
+            final long maximumSize) {
+        this(loader, agent -> emptySet(), maximumSize);
+    }
+
+    /**
+     * Create a caching access control service
+     * @param loader a function that loads the authorizations applicable to a resource
+     * @param groups a function that resolves the groups of which an agent is a member,
+     *               such as {@link GroupService#getGroups}
+     * @param maximumSize the maximum number of resources to cache
+     */
+    public CachingAccessControlService(final Function<IRI, ? extends Collection<Authorization>> loader,
+            final Function<IRI, Set<IRI>> groups, final long maximumSize) {
+        requireNonNull(loader, "The authorization loader may not be null!");
+        requireNonNull(groups, "The group resolver may not be null!");
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("The cache size may not be negative!");
+        }
+        this.loader = loader;
+        this.groups = groups;
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public Boolean canRead(final Session session, final IRI identifier) {
+        return (getAccessModes(session, identifier) & READ) != 0;
+    }
+
+    @Override
+    public Boolean canWrite(final Session session, final IRI identifier) {
+        return (getAccessModes(session, identifier) & WRITE) != 0;
+    }
+
+    @Override
+    public Boolean canControl(final Session session, final IRI identifier) {
+        return (getAccessModes(session, identifier) & CONTROL) != 0;
+    }
+
+    @Override
+    public Boolean canAppend(final Session session, final IRI identifier) {
+        return (getAccessModes(session, identifier) & APPEND) != 0;
+    }
+
+    @Override
+    public Boolean anyMatch(final Session session, final IRI identifier, final Predicate<IRI> predicate) {
+        return AccessModes.toModes(getAccessModes(session, identifier)).stream().anyMatch(predicate);
+    }
+
+    @Override
+    public int getAccessModes(final Session session, final IRI identifier) {
+        requireNonNull(session, "The session may not be null!");
+        requireNonNull(identifier, "The identifier may not be null!");
+        final CacheEntry entry = getEntry(identifier);
+        final int modes = entry.getAccessModes(session.getAgent());
+        return session.getDelegatedBy().map(delegate -> modes & entry.getAccessModes(delegate)).orElse(modes);
+    }
+
+    /**
+     * Invalidate the cached index and decisions for a resource
+     * @param identifier the resource identifier
+     */
+    public synchronized void invalidate(final IRI identifier) {
+        generation += 1L;
+        entries.remove(identifier);
+    }
+
+    /**
+     * Invalidate all cached indexes and decisions
+     */
+    public synchronized void invalidateAll() {
+        generation += 1L;
+        entries.clear();
+    }
+
+    /**
+     * Get the number of resources currently cached
+     * @return the number of cached resources
+     */
+    public synchronized long size() {
+        return entries.size();
+    }
+
+    private CacheEntry getEntry(final IRI identifier) {
+        final long stamp;
+        synchronized (this) {
+            final CacheEntry entry = entries.get(identifier);
+            if (entry != null) {
+                return entry;
+            }
+            stamp = generation;
+        }
+        final CacheEntry entry = new CacheEntry(AuthorizationIndex.compile(loader.apply(identifier)));
+        synchronized (this) {
+            // Don't cache an index that was loaded before an invalidation
+            if (stamp == generation && maximumSize > 0) {
+                entries.put(identifier, entry);
+                if (entries.size() > maximumSize) {
+                    entries.remove(entries.keySet().iterator().next());
+                }
+            }
+        }
+        return entry;
+    }
+
+    private final class CacheEntry {
+        private final AuthorizationIndex index;
+        private final ClockCache<IRI, Integer> decisions = new ClockCache<>(Math.min(maximumSize, MAX_DECISIONS));
+
+        CacheEntry(final AuthorizationIndex index) {
+            this.index = index;
+        }
+
+        int getAccessModes(final IRI agent) {
+            final Integer cached = decisions.get(agent);
+            if (cached != null) {
+                return cached;
+            }
+            final int modes = index.getAccessModes(agent, groups);
+            decisions.put(agent, modes);
+            return modes;
+        }
+    }
+}
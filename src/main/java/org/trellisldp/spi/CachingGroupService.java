@@ -0,0 +1,200 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.time.Clock.systemUTC;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.requireNonNull;
+import static org.trellisldp.vocabulary.RDF.type;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.trellisldp.vocabulary.VCARD;
+
+/**
+ * A {@link GroupService} decorator that caches the groups of each agent in memory.
+ *
+ * <p>Group memberships are held in a least-recently-used cache, bounded by the number of agents,
+ * and expire after a fixed time-to-live. Memberships can be loaded in bulk with {@link #preload},
+ * for instance from the {@code vcard:Group} resources in a repository (see {@link #getMemberships}),
+ * so that a group-based authorization costs a single lookup rather than a resource fetch.</p>
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+public class CachingGroupService implements GroupService {
+
+    private final GroupService delegate;
+    private final long maximumSize;
+    private final Duration ttl;
+    private final Clock clock;
+
+    private final Map<IRI, CacheEntry> memberships = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long generation = 0L;
+
+    /**
+     * Create a caching group service
+     * @param delegate the underlying group service
+     * @param maximumSize the maximum number of agents to cache
+     * @param ttl the time-to-live for cached memberships
+     */
+    public CachingGroupService(final GroupService delegate, final long maximumSize, final Duration ttl) {
+        this(delegate, maximumSize, ttl, systemUTC());
+    }
+
+    /**
+     * Create a caching group service
+     * @param delegate the underlying group service
+     * @param maximumSize the maximum number of agents to cache
+     * @param ttl the time-to-live for cached memberships
+     * @param clock the clock used to compute entry expiry
+     */
+    public CachingGroupService(final GroupService delegate, final long maximumSize, final Duration ttl,
+            final Clock clock) {
+        requireNonNull(delegate, "The delegate group service may not be null!");
+        requireNonNull(ttl, "The time-to-live may not be null!");
+        requireNonNull(clock, "The clock may not be null!");
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("The cache size may not be negative!");
+        }
+        this.delegate = delegate;
+        this.maximumSize = maximumSize;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Derive the group memberships of each agent from a graph of vcard:Group resources
+     * @param graph the graph
+     * @return the groups of each agent listed with vcard:hasMember; only subjects typed as vcard:Group
+     *         are treated as groups
+     */
+    public static Map<IRI, Set<IRI>> getMemberships(final Graph graph) {
+        requireNonNull(graph, "The input graph may not be null!");
+        final Map<IRI, Set<IRI>> data = new HashMap<>();
+        graph.stream(null, VCARD.hasMember, null)
+            .filter(triple -> triple.getSubject() instanceof IRI && triple.getObject() instanceof IRI)
+            .filter(triple -> graph.contains(triple.getSubject(), type, VCARD.Group))
+            .forEach(triple -> data.computeIfAbsent((IRI) triple.getObject(), k -> new HashSet<>())
+                    .add((IRI) triple.getSubject()));
+        return data;
+    }
+
+    @Override
+    public Set<IRI> getGroups(final IRI agent) {
+        final long stamp;
+        synchronized (this) {
+            final CacheEntry entry = memberships.get(agent);
+            if (entry != null && entry.expires.isAfter(clock.instant())) {
+                hits.increment();
+                return entry.groups;
+            } else if (entry != null) {
+                memberships.remove(agent);
+            }
+            misses.increment();
+            stamp = generation;
+        }
+        final Set<IRI> groups = unmodifiableSet(new HashSet<>(delegate.getGroups(agent)));
+        cache(agent, groups, stamp);
+        return groups;
+    }
+
+    /**
+     * Load the group memberships for a number of agents into the cache
+     * @param groups the complete set of groups for each agent
+     */
+    public void preload(final Map<IRI, ? extends Set<IRI>> groups) {
+        requireNonNull(groups, "The group memberships may not be null!");
+        final long stamp;
+        synchronized (this) {
+            stamp = generation;
+        }
+        groups.forEach((agent, values) -> cache(agent, unmodifiableSet(new HashSet<>(values)), stamp));
+    }
+
+    /**
+     * Remove the cached memberships of an agent
+     * @param agent the agent
+     */
+    public synchronized void invalidate(final IRI agent) {
+        generation += 1L;
+        memberships.remove(agent);
+    }
+
+    /**
+     * Remove all cached memberships
+     */
+    public synchronized void invalidateAll() {
+        generation += 1L;
+        memberships.clear();
+    }
+
+    /**
+     * Get the number of cache hits
+     * @return the number of lookups served from the cache
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of cache misses
+     * @return the number of lookups passed to the underlying service
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the number of cached agents
+     * @return the number of cached agents
+     */
+    public synchronized long size() {
+        return memberships.size();
+    }
+
+    private synchronized void cache(final IRI agent, final Set<IRI> groups, final long stamp) {
+        // Skip any value that may have been read before a concurrent invalidation
+        if (stamp != generation || maximumSize == 0) {
+            return;
+        }
+        memberships.put(agent, new CacheEntry(groups, clock.instant().plus(ttl)));
+        if (memberships.size() > maximumSize) {
+            memberships.remove(memberships.keySet().iterator().next());
+        }
+    }
+
+    private static final class CacheEntry {
+        private final Set<IRI> groups;
+        private final Instant expires;
+
+        CacheEntry(final Set<IRI> groups, final Instant expires) {
+            this.groups = groups;
+            this.expires = expires;
+        }
+    }
+}
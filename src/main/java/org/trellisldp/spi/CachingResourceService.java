@@ -0,0 +1,372 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.time.Clock.systemUTC;
+import static java.util.Objects.requireNonNull;
+import static java.util.Optional.of;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Stream.concat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.Dataset;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Quad;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.Triple;
+import org.trellisldp.api.Resource;
+
+/**
+ * A {@link ResourceService} decorator that caches resources in memory.
+ *
+ * <p>Current resources are held in a least-recently-used cache that is bounded both by the number of
+ * entries and by their total weight, and entries expire after a fixed time-to-live. Any call to
+ * {@link #put}, {@link #putAll}, {@link #purge} or {@link #compact} on this instance invalidates the
+ * affected entries; {@link #purge} and {@link #compact} run to completion before they return. Writes
+ * made to the underlying service through other paths are only observed once an entry expires.</p>
+ *
+ * <p>Historical (Memento) lookups for a time in the past are immutable, so they are cached without
+ * a time-to-live, in a separate cache bounded by the number of entries.</p>
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+public class CachingResourceService implements ResourceService {
+
+    private final ResourceService delegate;
+    private final long maximumSize;
+    private final long maximumWeight;
+    private final ToLongFunction<Resource> weigher;
+    private final Duration ttl;
+    private final Clock clock;
+
+    private final Map<IRI, CacheEntry> resources = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Map.Entry<IRI, Instant>, Resource> mementos = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long weight = 0L;
+    private long generation = 0L;
+
+    /**
+     * Create a caching resource service, bounded by the number of cached resources
+     * @param delegate the underlying resource service
+     * @param maximumSize the maximum number of resources to cache
+     * @param ttl the time-to-live for cached resources
+     */
+    public CachingResourceService(final ResourceService delegate, final long maximumSize, final Duration ttl) {
+        this(delegate, maximumSize, Long.MAX_VALUE, resource -> 1L, ttl, systemUTC());
+    }
+
+    /**
+     * Create a caching resource service
+     * @param delegate the underlying resource service
+     * @param maximumSize the maximum number of resources to cache; this also bounds the Memento cache
+     * @param maximumWeight the maximum total weight of the cached resources
+     * @param weigher a function that computes the weight of a resource
+     * @param ttl the time-to-live for cached resources
+     * @param clock the clock used to compute entry expiry
+     */
+    public CachingResourceService(final ResourceService delegate, final long maximumSize, final long maximumWeight,
+            final ToLongFunction<Resource> weigher, final Duration ttl, final Clock clock) {
+        requireNonNull(delegate, "The delegate resource service may not be null!");
+        requireNonNull(weigher, "The weigher may not be null!");
+        requireNonNull(ttl, "The time-to-live may not be null!");
+        requireNonNull(clock, "The clock may not be null!");
+        if (maximumSize < 0 || maximumWeight < 0) {
+            throw new IllegalArgumentException("The cache bounds may not be negative!");
+        }
+        this.delegate = delegate;
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    @Override
+    public Optional<Resource> get(final IRI identifier) {
+        final long stamp;
+        synchronized (this) {
+            final CacheEntry entry = resources.get(identifier);
+            if (entry != null && entry.expires.isAfter(clock.instant())) {
+                hits.increment();
+                return of(entry.resource);
+            } else if (entry != null) {
+                remove(identifier);
+            }
+            misses.increment();
+            stamp = generation;
+        }
+        final Optional<Resource> resource = delegate.get(identifier);
+        resource.ifPresent(res -> cache(identifier, res, stamp));
+        return resource;
+    }
+
+    @Override
+    public Optional<Resource> get(final IRI identifier, final Instant time) {
+        if (!time.isBefore(clock.instant())) {
+            return delegate.get(identifier, time);
+        }
+        final Map.Entry<IRI, Instant> key = new SimpleImmutableEntry<>(identifier, time);
+        final long stamp;
+        synchronized (this) {
+            final Resource memento = mementos.get(key);
+            if (memento != null) {
+                hits.increment();
+                return of(memento);
+            }
+            misses.increment();
+            stamp = generation;
+        }
+        final Optional<Resource> resource = delegate.get(identifier, time);
+        resource.ifPresent(res -> {
+            synchronized (this) {
+                if (stamp == generation && maximumSize > 0) {
+                    mementos.put(key, res);
+                    final Iterator<Map.Entry<IRI, Instant>> iter = mementos.keySet().iterator();
+                    while (mementos.size() > maximumSize && iter.hasNext()) {
+                        iter.next();
+                        iter.remove();
+                        evictions.increment();
+                    }
+                }
+            }
+        });
+        return resource;
+    }
+
+    @Override
+    public Stream<Resource> getAll(final Collection<IRI> identifiers) {
+        final List<Resource> cached = new ArrayList<>();
+        final List<IRI> missing = new ArrayList<>();
+        final long stamp;
+        synchronized (this) {
+            final Instant now = clock.instant();
+            for (final IRI identifier : identifiers) {
+                final CacheEntry entry = resources.get(identifier);
+                if (entry != null && entry.expires.isAfter(now)) {
+                    hits.increment();
+                    cached.add(entry.resource);
+                } else {
+                    if (entry != null) {
+                        remove(identifier);
+                    }
+                    misses.increment();
+                    missing.add(identifier);
+                }
+            }
+            stamp = generation;
+        }
+        if (missing.isEmpty()) {
+            return cached.stream();
+        }
+        final List<Resource> fetched = delegate.getAll(missing).collect(toList());
+        fetched.forEach(res -> cache(res.getIdentifier(), res, stamp));
+        return concat(cached.stream(), fetched.stream());
+    }
+
+    @Override
+    public Boolean put(final IRI identifier, final Dataset dataset) {
+        try {
+            return delegate.put(identifier, dataset);
+        } finally {
+            invalidate(identifier);
+        }
+    }
+
+    @Override
+    public Map<IRI, Boolean> putAll(final Map<IRI, Dataset> datasets) {
+        try {
+            return delegate.putAll(datasets);
+        } finally {
+            datasets.keySet().forEach(this::invalidate);
+        }
+    }
+
+    @Override
+    public Stream<IRI> compact(final IRI identifier, final Instant from, final Instant until) {
+        return invalidateAfter(identifier, () -> delegate.compact(identifier, from, until));
+    }
+
+    @Override
+    public Stream<IRI> purge(final IRI identifier) {
+        return invalidateAfter(identifier, () -> delegate.purge(identifier));
+    }
+
+    @Override
+    public Stream<? extends Triple> list(final String partition) {
+        return delegate.list(partition);
+    }
+
+    @Override
+    public Stream<? extends Quad> export(final String partition, final Collection<IRI> graphNames) {
+        return delegate.export(partition, graphNames);
+    }
+
+    @Override
+    public Stream<? extends Quad> export(final String partition, final Collection<IRI> graphNames,
+            final Executor executor, final int concurrency, final boolean ordered) {
+        return delegate.export(partition, graphNames, executor, concurrency, ordered);
+    }
+
+    @Override
+    public Optional<IRI> getContainer(final IRI identifier) {
+        return delegate.getContainer(identifier);
+    }
+
+    @Override
+    public RDFTerm skolemize(final RDFTerm term) {
+        return delegate.skolemize(term);
+    }
+
+    @Override
+    public RDFTerm unskolemize(final RDFTerm term) {
+        return delegate.unskolemize(term);
+    }
+
+    @Override
+    public Supplier<String> getIdentifierSupplier() {
+        return delegate.getIdentifierSupplier();
+    }
+
+    /**
+     * Run a lazily evaluated operation to completion and then invalidate the resource, so that a lookup made
+     * before the operation has actually taken effect cannot leave the old resource in the cache
+     */
+    private Stream<IRI> invalidateAfter(final IRI identifier, final Supplier<Stream<IRI>> operation) {
+        try (final Stream<IRI> stream = operation.get()) {
+            return stream.collect(toList()).stream();
+        } finally {
+            invalidate(identifier);
+        }
+    }
+
+    /**
+     * Remove any cached data for the given resource, including its Mementos
+     * @param identifier the resource identifier
+     */
+    public synchronized void invalidate(final IRI identifier) {
+        generation += 1;
+        remove(identifier);
+        mementos.keySet().removeIf(key -> key.getKey().equals(identifier));
+    }
+
+    /**
+     * Remove all cached data
+     */
+    public synchronized void invalidateAll() {
+        generation += 1;
+        resources.clear();
+        mementos.clear();
+        weight = 0L;
+    }
+
+    /**
+     * Get the number of cache hits
+     * @return the number of lookups served from the cache
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of cache misses
+     * @return the number of lookups passed to the underlying service
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Get the number of evictions
+     * @return the number of entries evicted due to the size or weight bounds
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Get the number of cached resources
+     * @return the number of cached resources, not including Mementos
+     */
+    public synchronized long size() {
+        return resources.size();
+    }
+
+    /**
+     * Get the total weight of the cached resources
+     * @return the total weight
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    private synchronized void cache(final IRI identifier, final Resource resource, final long stamp) {
+        // Skip any value that may have been read before a concurrent invalidation
+        if (stamp != generation) {
+            return;
+        }
+        final long resourceWeight = weigher.applyAsLong(resource);
+        if (maximumSize == 0 || resourceWeight > maximumWeight) {
+            return;
+        }
+        remove(identifier);
+        resources.put(identifier, new CacheEntry(resource, resourceWeight, clock.instant().plus(ttl)));
+        weight += resourceWeight;
+
+        final Iterator<Map.Entry<IRI, CacheEntry>> iter = resources.entrySet().iterator();
+        while ((resources.size() > maximumSize || weight > maximumWeight) && iter.hasNext()) {
+            weight -= iter.next().getValue().weight;
+            iter.remove();
+            evictions.increment();
+        }
+    }
+
+    private void remove(final IRI identifier) {
+        final CacheEntry entry = resources.remove(identifier);
+        if (entry != null) {
+            weight -= entry.weight;
+        }
+    }
+
+    private static final class CacheEntry {
+        private final Resource resource;
+        private final long weight;
+        private final Instant expires;
+
+        CacheEntry(final Resource resource, final long weight, final Instant expires) {
+            this.resource = resource;
+            this.weight = weight;
+            this.expires = expires;
+        }
+    }
+}
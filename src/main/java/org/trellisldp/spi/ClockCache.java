@@ -0,0 +1,142 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, concurrent cache that approximates least-recently-used eviction with the CLOCK algorithm.
+ *
+ * <p>Reads never take a lock: a cache hit only marks its entry as referenced. Once the cache is full,
+ * an insertion sweeps a clock hand over the entries, giving each referenced entry a second chance by
+ * clearing its mark and evicting the first entry that has not been referenced since the last sweep.
+ * The entry being inserted is never the one evicted, so a new value is always cached. New entries start
+ * unmarked, so a burst of entries that are used only once evict one another rather than the entries that
+ * are used repeatedly. Only insertions that need to evict an entry are serialized.</p>
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @author acoburn
+ */
+final class ClockCache<K, V> {
+
+    private final long maximumSize;
+    private final Map<K, Node<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong size = new AtomicLong();
+
+    private Iterator<Map.Entry<K, Node<V>>> hand;
+
+    /**
+     * Create a cache
+     * @param maximumSize the maximum number of entries
+     */
+    ClockCache(final long maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("The cache size may not be negative!");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Get a cached value
+     * @param key the key
+     * @return the value, or null if it is not cached
+     */
+    V get(final K key) {
+        final Node<V> node = entries.get(key);
+        if (node == null) {
+            return null;
+        }
+        // Avoid writing to a shared entry when it is already marked
+        if (!node.referenced) {
+            node.referenced = true;
+        }
+        return node.value;
+    }
+
+    /**
+     * Cache a value, evicting another entry if the cache is full
+     * @param key the key
+     * @param value the value
+     */
+    void put(final K key, final V value) {
+        if (maximumSize == 0L) {
+            return;
+        }
+        final Node<V> node = new Node<>(value);
+        if (entries.put(key, node) == null && size.incrementAndGet() > maximumSize) {
+            evict(node);
+        }
+    }
+
+    /**
+     * Remove a cached value
+     * @param key the key
+     */
+    void remove(final K key) {
+        if (entries.remove(key) != null) {
+            size.decrementAndGet();
+        }
+    }
+
+    /**
+     * Remove all cached values
+     */
+    void clear() {
+        entries.keySet().forEach(this::remove);
+    }
+
+    /**
+     * Get the number of cached values
+     * @return the number of cached values
+     */
+    long size() {
+        return size.get();
+    }
+
+    private synchronized void evict(final Node<V> inserted) {
+        // Two passes over the entries clear every mark, so give up after that if other threads keep inserting
+        long remaining = 2L * (size.get() + 1L);
+        while (size.get() > maximumSize && remaining-- > 0L) {
+            if (hand == null || !hand.hasNext()) {
+                hand = entries.entrySet().iterator();
+                if (!hand.hasNext()) {
+                    return;
+                }
+            }
+            final Map.Entry<K, Node<V>> entry = hand.next();
+            final Node<V> node = entry.getValue();
+            if (node == inserted) {
+                continue;
+            }
+            if (node.referenced) {
+                node.referenced = false;
+            } else if (entries.remove(entry.getKey(), node)) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    private static final class Node<V> {
+        private final V value;
+        private volatile boolean referenced = false;
+
+        Node(final V value) {
+            this.value = value;
+        }
+    }
+}
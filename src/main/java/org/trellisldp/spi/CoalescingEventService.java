@@ -0,0 +1,218 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.rdf.api.IRI;
+
+/**
+ * An {@link EventService} decorator that coalesces events for the same target within a time window.
+ *
+ * <p>The first event for a target opens a window; any further events for that target received before the
+ * window closes are merged into it, and a single event is delivered to the underlying service when the window
+ * closes, or when {@link #flush} is called. A merged event has the union of the types and agents of its events
+ * and the latest creation time; its identifier, target types and inbox are taken from the most recent event.</p>
+ *
+ * <p>Events without a target are delivered immediately. Failures to deliver a merged event are counted, but not
+ * rethrown. Closing this service delivers any pending events.</p>
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+public class CoalescingEventService implements EventService, AutoCloseable {
+
+    private final EventService delegate;
+    private final long window;
+    private final ScheduledExecutorService scheduler;
+    private final Map<IRI, Merged> pending = new HashMap<>();
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder emitted = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile boolean closed = false;
+
+    /**
+     * Create a coalescing event service
+     * @param delegate the underlying event service
+     * @param window the length of time during which events for a target are merged
+     */
+    public CoalescingEventService(final EventService delegate, final Duration window) {
+        requireNonNull(delegate, "The delegate event service may not be null!");
+        requireNonNull(window, "The coalescing window may not be null!");
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("The coalescing window must be a positive duration!");
+        }
+        this.delegate = delegate;
+        this.window = window.toNanos();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "trellis-event-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void emit(final Event event) {
+        requireNonNull(event, "The event may not be null!");
+        if (closed) {
+            throw new IllegalStateException("The event service has been closed");
+        }
+        received.increment();
+        if (!event.getTarget().isPresent()) {
+            delegate.emit(event);
+            emitted.increment();
+            return;
+        }
+        final IRI target = event.getTarget().get();
+        final Merged merged;
+        synchronized (pending) {
+            final Merged existing = pending.get(target);
+            if (existing != null) {
+                existing.add(event);
+                return;
+            }
+            merged = new Merged(event);
+            pending.put(target, merged);
+        }
+        scheduler.schedule(() -> release(target, merged), window, NANOSECONDS);
+    }
+
+    /**
+     * Deliver all pending events without waiting for their windows to close
+     */
+    public void flush() {
+        final List<Merged> events;
+        synchronized (pending) {
+            events = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        events.forEach(merged -> deliver(merged.toEvent()));
+    }
+
+    /**
+     * Stop accepting events and deliver any pending events
+     */
+    @Override
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+        flush();
+    }
+
+    /**
+     * Get the number of targets with pending events
+     * @return the number of pending events
+     */
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Get the number of events received by this service
+     * @return the number of received events
+     */
+    public long getReceivedCount() {
+        return received.sum();
+    }
+
+    /**
+     * Get the number of (possibly merged) events delivered to the underlying service
+     * @return the number of emitted events
+     */
+    public long getEmittedCount() {
+        return emitted.sum();
+    }
+
+    /**
+     * Get the number of events that the underlying service failed to emit
+     * @return the number of failed events
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Close a window, unless it has already been flushed; a later window for the same target is left open
+     */
+    private void release(final IRI target, final Merged merged) {
+        final boolean removed;
+        synchronized (pending) {
+            removed = pending.remove(target, merged);
+        }
+        if (removed) {
+            deliver(merged.toEvent());
+        }
+    }
+
+    private void deliver(final Event event) {
+        try {
+            delegate.emit(event);
+            emitted.increment();
+        } catch (final RuntimeException ex) {
+            failed.increment();
+        }
+    }
+
+    /**
+     * The accumulated state of the events for a single target
+     */
+    private static final class Merged {
+        private final Set<IRI> types = new LinkedHashSet<>();
+        private final Set<IRI> agents = new LinkedHashSet<>();
+        private Event latest;
+        private Instant created;
+
+        Merged(final Event event) {
+            this.latest = event;
+            this.created = event.getCreated();
+            types.addAll(event.getTypes());
+            agents.addAll(event.getAgents());
+        }
+
+        void add(final Event event) {
+            types.addAll(event.getTypes());
+            agents.addAll(event.getAgents());
+            if (!event.getCreated().isBefore(created)) {
+                latest = event;
+                created = event.getCreated();
+            }
+        }
+
+        Event toEvent() {
+            if (types.equals(new HashSet<>(latest.getTypes())) && agents.equals(new HashSet<>(latest.getAgents()))) {
+                return latest;
+            }
+            return new ImmutableEvent(latest.getIdentifier(), agents, latest.getTarget().orElse(null), types,
+                    latest.getTargetTypes(), created, latest.getInbox().orElse(null));
+        }
+    }
+}
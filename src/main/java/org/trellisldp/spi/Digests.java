@@ -0,0 +1,224 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Locale.ROOT;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Utilities for computing digests of binary content as it is read.
+ *
+ * <p>Only the algorithms from the HTTP Digest Algorithm registry whose values are base64-encoded
+ * message digests are supported: {@code md5}, {@code sha}, {@code sha-256} and {@code sha-512}.</p>
+ *
+ * @see <a href="https://www.iana.org/assignments/http-dig-alg/http-dig-alg.xhtml">HTTP Digest Algorithm Values</a>
+ *
+ * @author acoburn
+ */
+final class Digests {
+
+    /**
+     * The prefix of the metadata keys under which computed digests are stored
+     */
+    static final String METADATA_PREFIX = "digest:";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Map<String, String> ALGORITHMS;
+
+    static {
+        final Map<String, String> algorithms = new HashMap<>();
+        algorithms.put("md5", "MD5");
+        algorithms.put("sha", "SHA-1");
+        algorithms.put("sha-256", "SHA-256");
+        algorithms.put("sha-512", "SHA-512");
+        ALGORITHMS = unmodifiableMap(algorithms);
+    }
+
+    /**
+     * Create message digests for each supported algorithm
+     * @param algorithms the algorithm names
+     * @return the message digests, keyed by (lower-case) algorithm name
+     */
+    static Map<String, MessageDigest> create(final Collection<String> algorithms) {
+        final Map<String, MessageDigest> digests = new LinkedHashMap<>();
+        for (final String algorithm : algorithms) {
+            final String name = algorithm.toLowerCase(ROOT);
+            final String jcaName = ALGORITHMS.get(name);
+            if (jcaName != null && !digests.containsKey(name)) {
+                try {
+                    digests.put(name, MessageDigest.getInstance(jcaName));
+                } catch (final NoSuchAlgorithmException ex) {
+                    // Not available on this platform
+                }
+            }
+        }
+        return digests;
+    }
+
+    /**
+     * Encode the computed digest values
+     * @param digests the message digests, keyed by algorithm name
+     * @return the digest values, keyed by algorithm name
+     */
+    static Map<String, String> encode(final Map<String, MessageDigest> digests) {
+        final Map<String, String> values = new LinkedHashMap<>();
+        digests.forEach((algorithm, digest) ->
+                values.put(algorithm, Base64.getEncoder().encodeToString(digest.digest())));
+        return values;
+    }
+
+    /**
+     * Compute digest values by reading an entire stream once
+     * @param stream the stream, which is closed
+     * @param digests the message digests, keyed by algorithm name
+     * @return the digest values, keyed by algorithm name
+     * @throws IOException if the stream could not be read
+     */
+    static Map<String, String> compute(final InputStream stream, final Map<String, MessageDigest> digests)
+            throws IOException {
+        try (final InputStream input = new DigestingInputStream(stream, digests.values())) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            while (input.read(buffer) >= 0) {
+                // digests are updated as the stream is read
+            }
+        }
+        return encode(digests);
+    }
+
+    /**
+     * Get the metadata key for a digest algorithm
+     * @param algorithm the algorithm name
+     * @return the metadata key
+     */
+    static String metadataKey(final String algorithm) {
+        return METADATA_PREFIX + algorithm.toLowerCase(ROOT);
+    }
+
+    /**
+     * Remove any values under the reserved digest metadata keys, which only hold digests computed from the content
+     * @param metadata the metadata, which may be null
+     * @return a copy of the metadata, without any digest values
+     */
+    static Map<String, String> withoutDigests(final Map<String, String> metadata) {
+        final Map<String, String> values = new HashMap<>();
+        if (metadata != null) {
+            metadata.forEach((key, value) -> {
+                if (!key.startsWith(METADATA_PREFIX)) {
+                    values.put(key, value);
+                }
+            });
+        }
+        return values;
+    }
+
+    /**
+     * An input stream that updates a set of message digests with the bytes that are read through it
+     */
+    static final class DigestingInputStream extends FilterInputStream {
+        private final Collection<MessageDigest> digests;
+        private boolean complete = false;
+
+        /**
+         * Create a digesting input stream
+         * @param stream the underlying stream
+         * @param digests the message digests
+         */
+        DigestingInputStream(final InputStream stream, final Collection<MessageDigest> digests) {
+            super(stream);
+            this.digests = digests;
+        }
+
+        /**
+         * Test whether the entire stream has been read
+         * @return true if the end of the stream was reached; false otherwise
+         */
+        boolean isComplete() {
+            return complete;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = in.read();
+            if (b < 0) {
+                complete = true;
+            } else {
+                for (final MessageDigest digest : digests) {
+                    digest.update((byte) b);
+                }
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int off, final int len) throws IOException {
+            final int count = in.read(buffer, off, len);
+            if (count < 0) {
+                complete = true;
+            } else {
+                for (final MessageDigest digest : digests) {
+                    digest.update(buffer, off, count);
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            if (n <= 0L) {
+                return 0L;
+            }
+            // Skipped bytes must still be digested
+            final byte[] buffer = new byte[(int) Math.min(n, 8192L)];
+            long skipped = 0L;
+            while (skipped < n) {
+                final int count = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (count < 0) {
+                    break;
+                }
+                skipped += count;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public synchronized void mark(final int readlimit) {
+            // marks are not supported
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            throw new IOException("Mark/reset is not supported");
+        }
+    }
+
+    private Digests() {
+        // prevent instantiation
+    }
+}
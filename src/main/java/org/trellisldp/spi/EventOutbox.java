@@ -0,0 +1,460 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterator.ORDERED;
+import static java.util.Spliterators.spliteratorUnknownSize;
+import static java.util.stream.StreamSupport.stream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * A durable, local outbox for events.
+ *
+ * <p>Emitted events are appended to a log file, each as a record whose checksummed header holds the length
+ * and checksum of its payload: the event in the binary form written by {@link EventService#serializeBinary}.
+ * The log is flushed to disk once every {@code syncInterval} events (and on {@link #sync} or {@link #close}).
+ * The log is read back through memory-mapped buffers, either from any record offset with {@link #replay}, or
+ * by a named consumer with {@link #deliver}, which forwards events to another {@link EventService} and records
+ * its progress in a cursor file. Delivery is at-least-once: events emitted after the last saved cursor are
+ * delivered again after a restart.</p>
+ *
+ * <p>When the outbox is opened, an incomplete record at the end of the log, left by an interrupted write, is
+ * discarded. A damaged record is only treated as incomplete if it runs to the end of the log or is followed
+ * only by zero bytes: a damaged record anywhere else means that the log is corrupt, and opening the outbox
+ * fails rather than discarding the events that follow it. The log is never truncated otherwise. This check
+ * reads the log directly, rather than through memory-mapped buffers, because some platforms (notably Windows)
+ * do not allow a file to be truncated while any part of it is mapped.</p>
+ *
+ * <p>Each cursor file is written to a temporary file, flushed to disk and then atomically renamed, after which
+ * the directory is also flushed to disk (except on Windows, where directories cannot be opened for this).</p>
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+public class EventOutbox implements EventService, AutoCloseable {
+
+    /**
+     * An event read from the outbox
+     */
+    public static final class Entry {
+        private final long offset;
+        private final long nextOffset;
+        private final Event event;
+
+        Entry(final long offset, final long nextOffset, final Event event) {
+            this.offset = offset;
+            this.nextOffset = nextOffset;
+            this.event = event;
+        }
+
+        /**
+         * The offset of this entry in the log
+         * @return the offset
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * The offset of the following entry in the log
+         * @return the next offset
+         */
+        public long getNextOffset() {
+            return nextOffset;
+        }
+
+        /**
+         * The event
+         * @return the event
+         */
+        public Event getEvent() {
+            return event;
+        }
+    }
+
+    private static final String LOG_FILE = "events.log";
+    private static final String CURSOR_SUFFIX = ".cursor";
+    private static final int HEADER_SIZE = 12;
+    private static final long WINDOW_SIZE = 64L * 1024L * 1024L;
+    private static final int READ_SIZE = 64 * 1024;
+    private static final Pattern CONSUMER_NAME = Pattern.compile("[A-Za-z0-9._-]+");
+    private static final boolean WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
+    private final Path directory;
+    private final FileChannel channel;
+    private final int syncInterval;
+    private long size;
+    private int unsynced = 0;
+
+    /**
+     * Open an event outbox
+     * @param directory the directory that holds the log and cursor files
+     * @param syncInterval the number of events appended between each flush to disk
+     */
+    public EventOutbox(final Path directory, final int syncInterval) {
+        requireNonNull(directory, "The outbox directory may not be null!");
+        if (syncInterval < 1) {
+            throw new IllegalArgumentException("The sync interval must be a positive value!");
+        }
+        this.directory = directory;
+        this.syncInterval = syncInterval;
+        try {
+            Files.createDirectories(directory);
+            this.channel = FileChannel.open(directory.resolve(LOG_FILE), CREATE, READ, WRITE);
+            this.size = recover(channel);
+            channel.position(size);
+        } catch (final IOException ex) {
+            throw new RuntimeRepositoryException("Error opening event outbox: " + directory, ex);
+        }
+    }
+
+    @Override
+    public void emit(final Event event) {
+        append(event);
+    }
+
+    /**
+     * Append an event to the log
+     * @param event the event
+     * @return the offset of the event in the log
+     */
+    public synchronized long append(final Event event) {
+        requireNonNull(event, "The event may not be null!");
+        final byte[] payload = ActivityStreamSerializer.serializeBinary(event);
+        final int checksum = checksum(payload);
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        buffer.putInt(payload.length).putInt(checksum).putInt(headerChecksum(payload.length, checksum))
+            .put(payload).flip();
+        final long offset = size;
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (final IOException ex) {
+            throw new RuntimeRepositoryException("Error writing to event outbox: " + directory, ex);
+        }
+        size += buffer.limit();
+        unsynced += 1;
+        if (unsynced >= syncInterval) {
+            sync();
+        }
+        return offset;
+    }
+
+    /**
+     * Flush all appended events to disk
+     */
+    public synchronized void sync() {
+        try {
+            channel.force(false);
+            unsynced = 0;
+        } catch (final IOException ex) {
+            throw new RuntimeRepositoryException("Error syncing event outbox: " + directory, ex);
+        }
+    }
+
+    /**
+     * Get the offset at which the next event will be appended
+     * @return the end offset of the log
+     */
+    public synchronized long getEndOffset() {
+        return size;
+    }
+
+    /**
+     * Read the events in the log, starting at a given offset
+     * @param offset the offset of a record, such as 0 or a value returned by {@link Entry#getNextOffset}
+     * @return the events from the offset up to the current end of the log
+     */
+    public Stream<Entry> replay(final long offset) {
+        final long end = getEndOffset();
+        if (offset < 0L || offset > end) {
+            throw new IllegalArgumentException("The offset " + offset + " is outside of the event log!");
+        }
+        final LogIterator iter = new LogIterator(channel, offset, end, true, true);
+        return stream(spliteratorUnknownSize(iter, ORDERED | NONNULL), false);
+    }
+
+    /**
+     * Get the offset of the next event to be delivered to a consumer
+     * @param consumer the consumer name
+     * @return the consumer's offset, or 0 if the consumer has not yet received any events
+     */
+    public long getCursor(final String consumer) {
+        final Path file = cursorFile(consumer);
+        try {
+            return Files.exists(file) ? Long.parseLong(new String(Files.readAllBytes(file), UTF_8).trim()) : 0L;
+        } catch (final IOException | NumberFormatException ex) {
+            throw new RuntimeRepositoryException("Error reading cursor file: " + file, ex);
+        }
+    }
+
+    /**
+     * Save the offset of the next event to be delivered to a consumer
+     * @param consumer the consumer name
+     * @param offset the offset
+     */
+    public void commit(final String consumer, final long offset) {
+        final Path file = cursorFile(consumer);
+        final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (final FileChannel out = FileChannel.open(tmp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+                final ByteBuffer buffer = ByteBuffer.wrap(Long.toString(offset).getBytes(UTF_8));
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            Files.move(tmp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+            if (!WINDOWS) {
+                try (final FileChannel dir = FileChannel.open(directory, READ)) {
+                    dir.force(true);
+                }
+            }
+        } catch (final IOException ex) {
+            throw new RuntimeRepositoryException("Error writing cursor file: " + file, ex);
+        }
+    }
+
+    /**
+     * Deliver any outstanding events to a consumer
+     * @param consumer the consumer name
+     * @param target the event service that receives the events
+     * @return the number of events delivered
+     */
+    public long deliver(final String consumer, final EventService target) {
+        requireNonNull(target, "The target event service may not be null!");
+        final long cursor = getCursor(consumer);
+        long position = cursor;
+        long delivered = 0L;
+        try (final Stream<Entry> entries = replay(cursor)) {
+            final Iterator<Entry> iter = entries.iterator();
+            while (iter.hasNext()) {
+                final Entry entry = iter.next();
+                target.emit(entry.getEvent());
+                position = entry.getNextOffset();
+                delivered += 1L;
+            }
+        } finally {
+            if (position != cursor) {
+                commit(consumer, position);
+            }
+        }
+        return delivered;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (final IOException ex) {
+            throw new RuntimeRepositoryException("Error closing event outbox: " + directory, ex);
+        }
+    }
+
+    private Path cursorFile(final String consumer) {
+        requireNonNull(consumer, "The consumer name may not be null!");
+        if (!CONSUMER_NAME.matcher(consumer).matches()) {
+            throw new IllegalArgumentException("Invalid consumer name: " + consumer + "!");
+        }
+        return directory.resolve(consumer + CURSOR_SUFFIX);
+    }
+
+    private static long recover(final FileChannel channel) throws IOException {
+        final long length = channel.size();
+        // Read without mapping the log, so that it can be truncated below
+        final LogIterator iter = new LogIterator(channel, 0L, length, false, false);
+        while (iter.hasNext()) {
+            iter.next();
+        }
+        if (iter.position < length) {
+            if (!iter.tornTail) {
+                throw new RuntimeRepositoryException("Corrupt event record at offset " + iter.position
+                        + " is followed by other data; the event log has not been modified");
+            }
+            channel.truncate(iter.position);
+        }
+        return iter.position;
+    }
+
+    private static int checksum(final byte[] payload) {
+        final CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static int headerChecksum(final int length, final int checksum) {
+        final CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(8).putInt(length).putInt(checksum).array());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * An iterator over the records in a region of the log, read either through memory-mapped windows
+     * or with positional reads
+     */
+    private static final class LogIterator implements Iterator<Entry> {
+        private final FileChannel channel;
+        private final long end;
+        private final boolean strict;
+        private final boolean mapped;
+        private long position;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private Entry next;
+        private boolean tornTail = false;
+
+        LogIterator(final FileChannel channel, final long start, final long end, final boolean strict,
+                final boolean mapped) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+            this.strict = strict;
+            this.mapped = mapped;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = read();
+            }
+            return next != null;
+        }
+
+        @Override
+        public Entry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Entry entry = next;
+            next = null;
+            position = entry.getNextOffset();
+            return entry;
+        }
+
+        private Entry read() {
+            if (position >= end) {
+                return null;
+            }
+            if (position + HEADER_SIZE > end) {
+                return invalid(true);
+            }
+            final ByteBuffer header = slice(position, HEADER_SIZE);
+            final int length = header.getInt();
+            final int checksum = header.getInt();
+            if (header.getInt() != headerChecksum(length, checksum) || length < 0) {
+                // An interrupted write may leave zero bytes behind, but anything else is corruption
+                return invalid(isZero(position, end));
+            }
+            final long nextOffset = position + HEADER_SIZE + length;
+            if (nextOffset > end) {
+                return invalid(true);
+            }
+            final byte[] payload = new byte[length];
+            slice(position + HEADER_SIZE, length).get(payload);
+            if (checksum(payload) != checksum) {
+                return invalid(isZero(nextOffset, end));
+            }
+            final Optional<Event> event = ActivityStreamSerializer.deserializeBinary(payload);
+            if (event.isPresent()) {
+                return new Entry(position, nextOffset, event.get());
+            }
+            if (strict) {
+                throw new RuntimeRepositoryException("Error decoding event at offset " + position);
+            }
+            return invalid(false);
+        }
+
+        /**
+         * Stop at an invalid record
+         * @param torn whether the record could be the last, incomplete write to the log
+         */
+        private Entry invalid(final boolean torn) {
+            if (strict) {
+                throw new RuntimeRepositoryException("Corrupt event record at offset " + position);
+            }
+            tornTail = torn;
+            return null;
+        }
+
+        private boolean isZero(final long from, final long to) {
+            for (long offset = from; offset < to; offset += READ_SIZE) {
+                final ByteBuffer buffer = slice(offset, (int) Math.min(to - offset, READ_SIZE));
+                while (buffer.hasRemaining()) {
+                    if (buffer.get() != 0) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private ByteBuffer slice(final long offset, final int length) {
+            if (!mapped) {
+                return read(offset, length);
+            }
+            if (window == null || offset < windowStart || offset + length > windowStart + window.limit()) {
+                try {
+                    windowStart = offset;
+                    window = channel.map(READ_ONLY, offset, Math.min(end - offset, Math.max(length, WINDOW_SIZE)));
+                } catch (final IOException ex) {
+                    throw new RuntimeRepositoryException("Error reading event outbox", ex);
+                }
+            }
+            final ByteBuffer buffer = window.duplicate();
+            buffer.position((int) (offset - windowStart));
+            buffer.limit((int) (offset - windowStart) + length);
+            return buffer;
+        }
+
+        private ByteBuffer read(final long offset, final int length) {
+            final ByteBuffer buffer = ByteBuffer.allocate(length);
+            try {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, offset + buffer.position()) < 0) {
+                        throw new RuntimeRepositoryException("Unexpected end of event outbox at offset " + offset);
+                    }
+                }
+            } catch (final IOException ex) {
+                throw new RuntimeRepositoryException("Error reading event outbox", ex);
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+}
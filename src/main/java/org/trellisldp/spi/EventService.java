@@ -15,6 +15,9 @@ package org.trellisldp.spi;
 
 import static java.util.Objects.requireNonNull;
 
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.Optional;
 
 /**
@@ -27,12 +30,38 @@ import java.util.Optional;
 @Deprecated
 public interface EventService {
 
+    /**
+     * The formats for serializing a batch of events
+     */
+    enum BatchFormat {
+        /**
+         * A single JSON array
+         */
+        JSON_ARRAY,
+        /**
+         * Newline-delimited JSON objects
+         */
+        NDJSON
+    }
+
     /**
      * Emit an event to the event service
      * @param event the event
      */
     void emit(Event event);
 
+    /**
+     * Emit a batch of events to the event service
+     *
+     * <p>The default implementation emits each event in turn. Implementations
+     * that can deliver several events at once should override this method.</p>
+     *
+     * @param events the events
+     */
+    default void emitAll(final Collection<? extends Event> events) {
+        events.forEach(this::emit);
+    }
+
     /**
      * Serialize an event as a JSON string
      * @param event the event
@@ -42,4 +71,73 @@ public interface EventService {
         requireNonNull(event, "The event may not be null!");
         return ActivityStreamSerializer.serialize(event);
     }
+
+    /**
+     * Serialize an event as UTF-8 encoded JSON
+     * @param event the event
+     * @param output the output stream, which is not closed
+     */
+    static void serialize(final Event event, final OutputStream output) {
+        requireNonNull(event, "The event may not be null!");
+        requireNonNull(output, "The output stream may not be null!");
+        ActivityStreamSerializer.serialize(event, output);
+    }
+
+    /**
+     * Serialize an event as UTF-8 encoded JSON
+     * @param event the event
+     * @param buffer the buffer; if there is not enough space, its position is left unchanged
+     * @return the number of bytes written
+     * @throws java.nio.BufferOverflowException if there is not enough space in the buffer
+     */
+    static int serialize(final Event event, final ByteBuffer buffer) {
+        requireNonNull(event, "The event may not be null!");
+        requireNonNull(buffer, "The buffer may not be null!");
+        return ActivityStreamSerializer.serialize(event, buffer);
+    }
+
+    /**
+     * Serialize a batch of events as UTF-8 encoded JSON
+     * @param events the events
+     * @param output the output stream, which is not closed
+     * @param format the batch format
+     */
+    static void serializeAll(final Collection<? extends Event> events, final OutputStream output,
+            final BatchFormat format) {
+        requireNonNull(events, "The events may not be null!");
+        requireNonNull(output, "The output stream may not be null!");
+        requireNonNull(format, "The batch format may not be null!");
+        ActivityStreamSerializer.serializeAll(events, output, format == BatchFormat.NDJSON);
+    }
+
+    /**
+     * Serialize an event in a compact, binary (CBOR) form, which can be read with {@link #deserializeBinary}
+     * @param event the event
+     * @return the serialized event
+     */
+    static byte[] serializeBinary(final Event event) {
+        requireNonNull(event, "The event may not be null!");
+        return ActivityStreamSerializer.serializeBinary(event);
+    }
+
+    /**
+     * Serialize an event in a compact, binary (CBOR) form
+     * @param event the event
+     * @param output the output stream, which is not closed
+     */
+    static void serializeBinary(final Event event, final OutputStream output) {
+        requireNonNull(event, "The event may not be null!");
+        requireNonNull(output, "The output stream may not be null!");
+        ActivityStreamSerializer.serializeBinary(event, output);
+    }
+
+    /**
+     * Read an event that was serialized with {@link #serializeBinary}
+     * @param data the serialized event
+     * @return the event, or an empty value if the data is not a binary-encoded event
+     */
+    static Optional<Event> deserializeBinary(final byte[] data) {
+        requireNonNull(data, "The data may not be null!");
+        return ActivityStreamSerializer.deserializeBinary(data);
+    }
 }
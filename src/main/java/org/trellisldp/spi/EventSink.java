@@ -0,0 +1,35 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+/**
+ * A destination for serialized events, such as a message broker, a webhook or an audit log.
+ *
+ * @see FanOutEventService
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+@FunctionalInterface
+public interface EventSink {
+
+    /**
+     * Send a serialized event
+     * @param event the event
+     * @param payload the event, serialized as UTF-8 encoded JSON; this array is shared with other sinks
+     *                and must not be modified
+     */
+    void send(Event event, byte[] payload);
+}
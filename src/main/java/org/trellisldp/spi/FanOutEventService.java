@@ -0,0 +1,248 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link EventService} that serializes each event once and sends it to several {@link EventSink}s.
+ *
+ * <p>Each sink has its own delivery thread and bounded queue, so a slow or failing sink does not delay
+ * the others. When a sink's queue is full, the event is passed to the overflow service, if there is one,
+ * such as a durable outbox; otherwise it is dropped for that sink only. Delivery counts are kept for each
+ * sink. Closing this service delivers any queued events, waiting up to the configured timeout for each
+ * sink; any events still queued after that are also passed to the overflow service.</p>
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+public class FanOutEventService implements EventService, AutoCloseable {
+
+    private final Map<String, Channel> channels = new LinkedHashMap<>();
+    private final Duration closeTimeout;
+    private volatile boolean closed = false;
+
+    /**
+     * Create a fan-out event service that drops events for a sink whose queue is full
+     * @param sinks the sinks, keyed by name
+     * @param capacity the maximum number of events queued for each sink
+     * @param closeTimeout the time to wait for each sink to drain its queue on close
+     */
+    public FanOutEventService(final Map<String, ? extends EventSink> sinks, final int capacity,
+            final Duration closeTimeout) {
+        this(sinks, capacity, closeTimeout, null);
+    }
+
+    /**
+     * Create a fan-out event service
+     * @param sinks the sinks, keyed by name
+     * @param capacity the maximum number of events queued for each sink
+     * @param closeTimeout the time to wait for each sink to drain its queue on close
+     * @param overflow the service that receives an event, once for each sink, when it cannot be queued
+     *                 for that sink; this may be null, in which case such events are dropped
+     */
+    public FanOutEventService(final Map<String, ? extends EventSink> sinks, final int capacity,
+            final Duration closeTimeout, final EventService overflow) {
+        requireNonNull(sinks, "The event sinks may not be null!");
+        requireNonNull(closeTimeout, "The close timeout may not be null!");
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The queue capacity must be a positive value!");
+        }
+        if (closeTimeout.isNegative()) {
+            throw new IllegalArgumentException("The close timeout may not be negative!");
+        }
+        this.closeTimeout = closeTimeout;
+        sinks.forEach((name, sink) -> {
+            requireNonNull(sink, "The event sink may not be null!");
+            channels.put(name, new Channel(name, sink, capacity, overflow));
+        });
+    }
+
+    @Override
+    public void emit(final Event event) {
+        requireNonNull(event, "The event may not be null!");
+        if (closed) {
+            throw new IllegalStateException("The event service has been closed");
+        }
+        final ByteArrayOutputStream output = new ByteArrayOutputStream(512);
+        ActivityStreamSerializer.serialize(event, output);
+        final byte[] payload = output.toByteArray();
+        channels.values().forEach(channel -> channel.submit(event, payload));
+    }
+
+    /**
+     * Stop accepting events and deliver any queued events
+     */
+    @Override
+    public void close() {
+        closed = true;
+        channels.values().forEach(channel -> channel.executor.shutdown());
+        try {
+            for (final Channel channel : channels.values()) {
+                if (!channel.executor.awaitTermination(closeTimeout.toMillis(), MILLISECONDS)) {
+                    channel.executor.shutdownNow().forEach(task -> channel.overflow(((Delivery) task).event));
+                }
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeRepositoryException("Interrupted while closing the event service", ex);
+        }
+    }
+
+    /**
+     * Get the names of the sinks
+     * @return the sink names
+     */
+    public Set<String> getSinkNames() {
+        return unmodifiableSet(channels.keySet());
+    }
+
+    /**
+     * Get the number of events queued for a sink
+     * @param name the sink name
+     * @return the queue depth
+     */
+    public int getQueueDepth(final String name) {
+        return channel(name).executor.getQueue().size();
+    }
+
+    /**
+     * Get the number of events sent to a sink
+     * @param name the sink name
+     * @return the number of sent events
+     */
+    public long getSentCount(final String name) {
+        return channel(name).sent.sum();
+    }
+
+    /**
+     * Get the number of events passed to the overflow service instead of a sink
+     * @param name the sink name
+     * @return the number of spilled events
+     */
+    public long getSpilledCount(final String name) {
+        return channel(name).spilled.sum();
+    }
+
+    /**
+     * Get the number of events dropped for a sink, because they could be neither queued for the sink
+     * nor passed to the overflow service
+     * @param name the sink name
+     * @return the number of dropped events
+     */
+    public long getDroppedCount(final String name) {
+        return channel(name).dropped.sum();
+    }
+
+    /**
+     * Get the number of events that a sink failed to send
+     * @param name the sink name
+     * @return the number of failed events
+     */
+    public long getFailedCount(final String name) {
+        return channel(name).failed.sum();
+    }
+
+    private Channel channel(final String name) {
+        final Channel channel = channels.get(name);
+        if (channel == null) {
+            throw new IllegalArgumentException("Unknown event sink: " + name + "!");
+        }
+        return channel;
+    }
+
+    private static final class Channel {
+        private final EventSink sink;
+        private final EventService overflow;
+        private final ThreadPoolExecutor executor;
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder spilled = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+
+        Channel(final String name, final EventSink sink, final int capacity, final EventService overflow) {
+            this.sink = sink;
+            this.overflow = overflow;
+            this.executor = new ThreadPoolExecutor(1, 1, 0L, MILLISECONDS, new ArrayBlockingQueue<>(capacity),
+                    runnable -> {
+                        final Thread thread = new Thread(runnable, "trellis-event-sink-" + name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+
+        void submit(final Event event, final byte[] payload) {
+            try {
+                executor.execute(new Delivery(this, event, payload));
+            } catch (final RejectedExecutionException ex) {
+                overflow(event);
+            }
+        }
+
+        void overflow(final Event event) {
+            if (overflow != null) {
+                try {
+                    overflow.emit(event);
+                    spilled.increment();
+                    return;
+                } catch (final RuntimeException ex) {
+                    // Fall through and count the event as dropped
+                }
+            }
+            dropped.increment();
+        }
+
+        private void send(final Event event, final byte[] payload) {
+            try {
+                sink.send(event, payload);
+                sent.increment();
+            } catch (final RuntimeException ex) {
+                failed.increment();
+            }
+        }
+    }
+
+    /**
+     * A queued delivery, which keeps its event so that it can be passed on if it is never run
+     */
+    private static final class Delivery implements Runnable {
+        private final Channel channel;
+        private final Event event;
+        private final byte[] payload;
+
+        Delivery(final Channel channel, final Event event, final byte[] payload) {
+            this.channel = channel;
+            this.event = event;
+            this.payload = payload;
+        }
+
+        @Override
+        public void run() {
+            channel.send(event, payload);
+        }
+    }
+}
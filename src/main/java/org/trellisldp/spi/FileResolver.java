@@ -0,0 +1,752 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.requireNonNull;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.IRI;
+import org.trellisldp.api.Binary;
+
+/**
+ * A {@link BinaryService.Resolver} that stores binary content on the local file system.
+ *
+ * <p>Each binary object is stored at {@code <base>/<partition>/<xx>/<yy>/<hash>}, where {@code hash} is the
+ * hex-encoded SHA-256 digest of the identifier and {@code xx} and {@code yy} are its first four characters, so
+ * that no single directory grows too large. Any metadata, including digest values computed by the
+ * {@link BinaryService} as the content is written, is kept in a {@code <hash>.meta} file alongside the content.
+ * The old metadata file is removed before new content replaces the old, and concurrent writes to the same
+ * object are serialized, so that stored digests always belong to the current content. All files are written
+ * to a temporary file in the target directory and then atomically renamed, so readers never see partially
+ * written content. Whether written files are flushed to disk before they are renamed is determined by the
+ * {@link SyncPolicy}.</p>
+ *
+ * <p>Content is read through a {@link FileChannel}: {@link #getChannel} returns the channel itself, ranged reads
+ * start at the requested position and {@link #getBuffer} maps a range of the content into memory. Windows does
+ * not allow a mapped file to be replaced or deleted until the mapping is garbage collected, so there
+ * {@link #getBuffer} reads the range into a heap buffer instead.</p>
+ *
+ * <p>When a resolver is created, it removes any temporary files and claimed ({@code .completing}) uploads left
+ * behind by an earlier process that stopped unexpectedly. The base directory should therefore not be in use by
+ * another resolver at that time.</p>
+ *
+ * <p>Multipart uploads are staged under {@code <base>/.uploads}. The value returned for each part is the
+ * hex-encoded MD5 digest of its content, which is computed as the part is written and recorded in the name of
+ * the part file, so parts are verified without being read again. If the same part is uploaded more than once,
+ * the upload that finishes last is kept. Completing an upload concatenates the part files with
+ * {@link FileChannel#transferTo}, and stores a {@code multipartDigest} metadata value derived from the part
+ * digests, in the form {@code <md5 of part digests>-<number of parts>}. Because this resolver has no knowledge
+ * of the request, the base URL, path and session of a completed {@link BinaryService.MultipartUpload} are
+ * {@code null}.</p>
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+public class FileResolver implements BinaryService.Resolver {
+
+    /**
+     * When written files are flushed to disk
+     */
+    public enum SyncPolicy {
+        /**
+         * Leave flushing to the operating system
+         */
+        NONE,
+        /**
+         * Flush each file before it is renamed into place
+         */
+        FILE,
+        /**
+         * Flush each file before it is renamed, and its directory afterwards, along with the parent of any
+         * directory that is created. Windows does not allow a directory to be opened, so there this is the
+         * same as {@link #FILE}.
+         */
+        DIRECTORY
+    }
+
+    private static final String SCHEME = "file";
+    private static final String METADATA_SUFFIX = ".meta";
+    private static final String PART_SUFFIX = ".part";
+    private static final String UPLOADS = ".uploads";
+    private static final String UPLOAD_INFO = "upload.properties";
+    private static final String COMPLETING_SUFFIX = ".completing";
+    private static final String MULTIPART_DIGEST = "multipartDigest";
+    private static final String PARTITION = "partition";
+    private static final String IDENTIFIER = "identifier";
+    private static final String MIME_TYPE = "mimeType";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int LOCKS = 64;
+    private static final Pattern TEMP_FILE = Pattern.compile("\\..*\\.tmp");
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+    private static final Pattern PART_NAME = Pattern.compile("(\\d+)-([0-9a-f]{32})\\.part");
+    private static final Pattern DIGEST = Pattern.compile("[0-9a-f]{32}");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final boolean WINDOWS = System.getProperty("os.name", "").startsWith("Windows");
+
+    private final Path base;
+    private final SyncPolicy syncPolicy;
+    private final Object[] locks = new Object[LOCKS];
+
+    /**
+     * Create a file resolver that flushes each file to disk
+     * @param base the base directory
+     */
+    public FileResolver(final Path base) {
+        this(base, SyncPolicy.FILE);
+    }
+
+    /**
+     * Create a file resolver
+     * @param base the base directory
+     * @param syncPolicy the sync policy
+     */
+    public FileResolver(final Path base, final SyncPolicy syncPolicy) {
+        requireNonNull(base, "The base directory may not be null!");
+        requireNonNull(syncPolicy, "The sync policy may not be null!");
+        this.base = base;
+        this.syncPolicy = syncPolicy;
+        for (int i = 0; i < LOCKS; ++i) {
+            locks[i] = new Object();
+        }
+        try {
+            cleanUp();
+        } catch (final IOException ex) {
+            throw new RuntimeRepositoryException("Error cleaning up the base directory: " + base, ex);
+        }
+    }
+
+    @Override
+    public List<String> getUriSchemes() {
+        return singletonList(SCHEME);
+    }
+
+    @Override
+    public Optional<InputStream> getContent(final String partition, final IRI identifier) {
+        return getChannel(partition, identifier).map(Channels::newInputStream);
+    }
+
+    @Override
+    public Optional<InputStream> getContent(final String partition, final IRI identifier, final long from,
+            final long to) {
+        final long length = BoundedInputStream.rangeLength(from, to);
+        return open(partition, identifier).map(channel -> {
+            try {
+                channel.position(from);
+            } catch (final IOException ex) {
+                try {
+                    channel.close();
+                } catch (final IOException inner) {
+                    ex.addSuppressed(inner);
+                }
+                throw new RuntimeRepositoryException("Error reading binary content: " + identifier, ex);
+            }
+            return new BoundedInputStream(Channels.newInputStream(channel), 0L, length);
+        });
+    }
+
+    @Override
+    public Optional<ReadableByteChannel> getChannel(final String partition, final IRI identifier) {
+        return open(partition, identifier).map(ReadableByteChannel.class::cast);
+    }
+
+    /**
+     * Map a range of the content of a binary object into memory
+     *
+     * <p>The file stays mapped until the buffer is garbage collected. On Windows, where a mapped file cannot be
+     * replaced or purged, the range is instead copied into a heap buffer.</p>
+     *
+     * @param partition the partition to use
+     * @param identifier the identifier
+     * @param from the offset of the first byte, inclusive
+     * @param to the offset of the last byte, inclusive; this is truncated to the end of the content
+     * @return a read-only buffer holding the content in the given range
+     */
+    public Optional<ByteBuffer> getBuffer(final String partition, final IRI identifier, final long from,
+            final long to) {
+        final long length = BoundedInputStream.rangeLength(from, to);
+        return open(partition, identifier).map(channel -> {
+            try (final FileChannel c = channel) {
+                final long size = Math.max(0L, Math.min(length, c.size() - from));
+                if (size > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("The byte range is too large to map: " + from + "-" + to
+                            + "!");
+                }
+                final long offset = Math.min(from, c.size());
+                return WINDOWS ? copy(c, offset, (int) size) : c.map(READ_ONLY, offset, size);
+            } catch (final IOException ex) {
+                throw new RuntimeRepositoryException("Error mapping binary content: " + identifier, ex);
+            }
+        });
+    }
+
+    @Override
+    public Map<String, String> getMetadata(final String partition, final IRI identifier) {
+        final Path file = metadataFile(resolve(partition, identifier));
+        try {
+            return unmodifiableMap(toMap(readProperties(file)));
+        } catch (final NoSuchFileException ex) {
+            return emptyMap();
+        } catch (final IOException ex) {
+            throw new RuntimeRepositoryException("Error reading binary metadata: " + identifier, ex);
+        }
+    }
+
+    @Override
+    public void setMetadata(final String partition, final IRI identifier, final Map<String, String> metadata) {
+        requireNonNull(metadata, "The metadata may not be null!");
+        final Path file = resolve(partition, identifier);
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("No binary content exists for " + identifier + "!");
+        }
+        try {
+            synchronized (lock(file)) {
+                writeProperties(toProperties(metadata), metadataFile(file));
+            }
+        } catch (final IOException ex) {
+            throw new RuntimeRepositoryException("Error writing binary metadata: " + identifier, ex);
+        }
+    }
+
+    @Override
+    public Boolean exists(final String partition, final IRI identifier) {
+        return Files.isRegularFile(resolve(partition, identifier));
+    }
+
+    @Override
+    public void setContent(final String partition, final IRI identifier, final InputStream stream,
+            final Map<String, String> metadata) {
+        setContent(partition, identifier, stream, metadata, Collections::emptyMap);
+    }
+
+    @Override
+    public void setContent(final String partition, final IRI identifier, final InputStream stream,
+            final Map<String, String> metadata, final Supplier<Map<String, String>> computed) {
+        requireNonNull(stream, "The content stream may not be null!");
+        requireNonNull(computed, "The computed metadata may not be null!");
+        final Path file = resolve(partition, identifier);
+        try {
+            createDirectories(file.getParent());
+            final Path tmp = writeTemporary(stream, file.getParent());
+            final Map<String, String> data = new HashMap<>();
+            try {
+                if (metadata != null) {
+                    data.putAll(metadata);
+                }
+                data.putAll(computed.get());
+            } catch (final RuntimeException ex) {
+                Files.deleteIfExists(tmp);
+                throw ex;
+            }
+            // The content and its metadata are replaced together, so concurrent writes cannot mix them
+            synchronized (lock(file)) {
+                replaceContent(tmp, file);
+                if (!data.isEmpty()) {
+                    writeProperties(toProperties(data), metadataFile(file));
+                }
+                syncDirectory(file.getParent());
+            }
+        } catch (final IOException ex) {
+            throw new RuntimeRepositoryException("Error writing binary content: " + identifier, ex);
+        }
+    }
+
+    @Override
+    public void purgeContent(final String partition, final IRI identifier) {
+        final Path file = resolve(partition, identifier);
+        try {
+            synchronized (lock(file)) {
+                Files.deleteIfExists(metadataFile(file));
+                Files.deleteIfExists(file);
+                syncDirectory(file.getParent());
+            }
+        } catch (final IOException ex) {
+            throw new RuntimeRepositoryException("Error purging binary content: " + identifier, ex);
+        }
+    }
+
+    @Override
+    public Boolean supportsMetadata() {
+        return true;
+    }
+
+    @Override
+    public Boolean supportsMultipartUpload() {
+        return true;
+    }
+
+    @Override
+    public String initiateUpload(final String partition, final IRI identifier, final String mimeType) {
+        requireNonNull(identifier, "The identifier may not be null!");
+        checkName(partition);
+        final String uploadId = UUID.randomUUID().toString();
+        final Properties info = new Properties();
+        info.setProperty(PARTITION, partition);
+        info.setProperty(IDENTIFIER, identifier.getIRIString());
+        if (mimeType != null) {
+            info.setProperty(MIME_TYPE, mimeType);
+        }
+        final Path dir = base.resolve(UPLOADS).resolve(uploadId);
+        try {
+            Files.createDirectories(dir);
+            writeProperties(info, dir.resolve(UPLOAD_INFO));
+        } catch (final IOException ex) {
+            throw new RuntimeRepositoryException("Error initiating upload: " + identifier, ex);
+        }
+        return uploadId;
+    }
+
+    @Override
+    public String uploadPart(final String identifier, final Integer partNumber, final InputStream content) {
+        requireNonNull(partNumber, "The part number may not be null!");
+        requireNonNull(content, "The content stream may not be null!");
+        if (partNumber < 1) {
+            throw new IllegalArgumentException("The part number must be a positive value!");
+        }
+        final Path dir = uploadDirectory(identifier);
+        final MessageDigest digest = md5();
+        try {
+            final Path tmp = writeTemporary(new DigestInputStream(content, digest), dir);
+            final String value = hex(digest.digest());
+            // Concurrent uploads of the same part are serialized here, so that the last one to finish is kept
+            synchronized (partLock(identifier, partNumber)) {
+                Files.move(tmp, dir.resolve(partName(partNumber, value)), REPLACE_EXISTING, ATOMIC_MOVE);
+                // Remove any earlier upload of this part with different content
+                for (final Map.Entry<Integer, String> part : findParts(dir, partNumber)) {
+                    if (!part.getValue().equals(value)) {
+                        Files.deleteIfExists(dir.resolve(partName(partNumber, part.getValue())));
+                    }
+                }
+            }
+            return value;
+        } catch (final IOException ex) {
+            throw new RuntimeRepositoryException("Error writing part " + partNumber + " of upload: " + identifier,
+                    ex);
+        }
+    }
+
+    @Override
+    public BinaryService.MultipartUpload completeUpload(final String identifier,
+            final Map<Integer, String> partDigests) {
+        requireNonNull(partDigests, "The part digests may not be null!");
+        if (partDigests.isEmpty()) {
+            throw new IllegalArgumentException("An upload must have at least one part!");
+        }
+        final Path dir = uploadDirectory(identifier);
+        final Path claimed = dir.resolveSibling(identifier + COMPLETING_SUFFIX);
+        try {
+            // Claim the session, so that it cannot be completed or modified concurrently
+            Files.move(dir, claimed, ATOMIC_MOVE);
+        } catch (final IOException ex) {
+            throw new IllegalArgumentException("Unknown upload session: " + identifier + "!");
+        }
+        boolean replaced = false;
+        try {
+            final Map<Integer, String> parts = new TreeMap<>(partDigests);
+            final Properties info = readProperties(claimed.resolve(UPLOAD_INFO));
+            final IRI binaryId = RDFUtils.getInstance().createIRI(info.getProperty(IDENTIFIER));
+            final Path file = resolve(info.getProperty(PARTITION), binaryId);
+            final Path tmp = assemble(claimed, parts, file);
+            synchronized (lock(file)) {
+                replaceContent(tmp, file);
+                // The object is in place, so the session is no longer restored if anything else fails
+                replaced = true;
+                writeProperties(toProperties(singletonMap(MULTIPART_DIGEST, compositeDigest(parts.values()))),
+                        metadataFile(file));
+                syncDirectory(file.getParent());
+            }
+            deleteDirectory(claimed);
+            return new BinaryService.MultipartUpload(null, null, null, new Binary(binaryId,
+                        Files.getLastModifiedTime(file).toInstant(), info.getProperty(MIME_TYPE), Files.size(file)));
+        } catch (final IOException | RuntimeException ex) {
+            if (!replaced) {
+                // The object has not been replaced, so the session can be completed again
+                try {
+                    Files.move(claimed, dir, ATOMIC_MOVE);
+                } catch (final IOException inner) {
+                    ex.addSuppressed(inner);
+                }
+            }
+            if (ex instanceof RuntimeException) {
+                throw (RuntimeException) ex;
+            }
+            throw new RuntimeRepositoryException("Error completing upload: " + identifier, ex);
+        }
+    }
+
+    @Override
+    public void abortUpload(final String identifier) {
+        try {
+            deleteDirectory(uploadDirectory(identifier));
+        } catch (final IOException ex) {
+            throw new RuntimeRepositoryException("Error aborting upload: " + identifier, ex);
+        }
+    }
+
+    @Override
+    public Boolean uploadSessionExists(final String identifier) {
+        checkName(identifier);
+        return Files.isRegularFile(base.resolve(UPLOADS).resolve(identifier).resolve(UPLOAD_INFO));
+    }
+
+    @Override
+    public Stream<Map.Entry<Integer, String>> listParts(final String identifier) {
+        final Path dir = uploadDirectory(identifier);
+        try {
+            final Map<Integer, String> parts = new TreeMap<>();
+            findParts(dir, null).forEach(part -> parts.put(part.getKey(), part.getValue()));
+            return parts.entrySet().stream().map(part -> new SimpleImmutableEntry<>(part.getKey(), part.getValue()));
+        } catch (final IOException ex) {
+            throw new RuntimeRepositoryException("Error listing parts of upload: " + identifier, ex);
+        }
+    }
+
+    /**
+     * Concatenate the parts of an upload into a temporary file alongside the object
+     */
+    private Path assemble(final Path dir, final Map<Integer, String> partDigests, final Path file)
+            throws IOException {
+        // Each part was digested as it was written, so its name verifies its content
+        final List<Path> parts = new ArrayList<>();
+        for (final Map.Entry<Integer, String> part : partDigests.entrySet()) {
+            final String digest = part.getValue();
+            final Path partFile = DIGEST.matcher(digest).matches() ? dir.resolve(partName(part.getKey(), digest))
+                : null;
+            if (partFile == null || !Files.isRegularFile(partFile)) {
+                if (findParts(dir, part.getKey()).isEmpty()) {
+                    throw new IllegalArgumentException("Missing part " + part.getKey() + "!");
+                }
+                throw new IllegalArgumentException("Digest mismatch for part " + part.getKey() + "!");
+            }
+            parts.add(partFile);
+        }
+
+        createDirectories(file.getParent());
+        final Path tmp = Files.createTempFile(file.getParent(), ".", ".tmp");
+        try (final FileChannel output = FileChannel.open(tmp, WRITE)) {
+            for (final Path part : parts) {
+                try (final FileChannel input = FileChannel.open(part, READ)) {
+                    final long size = input.size();
+                    long position = 0L;
+                    while (position < size) {
+                        position += input.transferTo(position, size - position, output);
+                    }
+                }
+            }
+            sync(output);
+        } catch (final IOException | RuntimeException ex) {
+            Files.deleteIfExists(tmp);
+            throw ex;
+        }
+        return tmp;
+    }
+
+    /**
+     * Compute the digest of a multipart object from the digests of its parts: the MD5 digest of the
+     * concatenated part digests, followed by the number of parts
+     * @param partDigests the hex-encoded part digests, in part order
+     * @return the composite digest
+     */
+    static String compositeDigest(final Collection<String> partDigests) {
+        final MessageDigest digest = md5();
+        for (final String part : partDigests) {
+            for (int i = 0; i < part.length(); i += 2) {
+                digest.update((byte) Integer.parseInt(part.substring(i, i + 2), 16));
+            }
+        }
+        return hex(digest.digest()) + "-" + partDigests.size();
+    }
+
+    /**
+     * Get the path of a binary object
+     * @param partition the partition
+     * @param identifier the identifier
+     * @return the path
+     */
+    Path resolve(final String partition, final IRI identifier) {
+        requireNonNull(identifier, "The identifier may not be null!");
+        checkName(partition);
+        final String hash = hex(sha256().digest(identifier.getIRIString().getBytes(UTF_8)));
+        return base.resolve(partition).resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private Optional<FileChannel> open(final String partition, final IRI identifier) {
+        try {
+            return of(FileChannel.open(resolve(partition, identifier), READ));
+        } catch (final NoSuchFileException ex) {
+            return empty();
+        } catch (final IOException ex) {
+            throw new RuntimeRepositoryException("Error reading binary content: " + identifier, ex);
+        }
+    }
+
+    private Path uploadDirectory(final String identifier) {
+        checkName(identifier);
+        final Path dir = base.resolve(UPLOADS).resolve(identifier);
+        if (!Files.isRegularFile(dir.resolve(UPLOAD_INFO))) {
+            throw new IllegalArgumentException("Unknown upload session: " + identifier + "!");
+        }
+        return dir;
+    }
+
+    private Object lock(final Path file) {
+        return locks[Math.floorMod(file.hashCode(), LOCKS)];
+    }
+
+    private Object partLock(final String identifier, final Integer partNumber) {
+        return locks[Math.floorMod(31 * identifier.hashCode() + partNumber, LOCKS)];
+    }
+
+    private static String partName(final Integer partNumber, final String digest) {
+        return partNumber + "-" + digest + PART_SUFFIX;
+    }
+
+    private static List<Map.Entry<Integer, String>> findParts(final Path dir, final Integer partNumber)
+            throws IOException {
+        final List<Map.Entry<Integer, String>> parts = new ArrayList<>();
+        try (final Stream<Path> files = Files.list(dir)) {
+            files.map(file -> PART_NAME.matcher(file.getFileName().toString())).filter(Matcher::matches)
+                .map(m -> new SimpleImmutableEntry<>(Integer.valueOf(m.group(1)), m.group(2)))
+                .filter(part -> partNumber == null || partNumber.equals(part.getKey()))
+                .forEach(parts::add);
+        }
+        return parts;
+    }
+
+    /**
+     * Move new content into place. Any metadata for the old content is removed first, since it may hold
+     * digests of that content, so that it is never paired with the new content.
+     */
+    private void replaceContent(final Path tmp, final Path file) throws IOException {
+        try {
+            if (Files.deleteIfExists(metadataFile(file))) {
+                syncDirectory(file.getParent());
+            }
+            Files.move(tmp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (final IOException | RuntimeException ex) {
+            Files.deleteIfExists(tmp);
+            throw ex;
+        }
+    }
+
+    private void write(final InputStream stream, final Path target) throws IOException {
+        Files.move(writeTemporary(stream, target.getParent()), target, REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    private Path writeTemporary(final InputStream stream, final Path dir) throws IOException {
+        final Path tmp = Files.createTempFile(dir, ".", ".tmp");
+        try (final FileChannel output = FileChannel.open(tmp, WRITE)) {
+            copy(stream, output);
+            sync(output);
+        } catch (final IOException | RuntimeException ex) {
+            Files.deleteIfExists(tmp);
+            throw ex;
+        }
+        return tmp;
+    }
+
+    private void sync(final FileChannel channel) throws IOException {
+        if (syncPolicy != SyncPolicy.NONE) {
+            channel.force(true);
+        }
+    }
+
+    private void syncDirectory(final Path dir) throws IOException {
+        if (syncPolicy == SyncPolicy.DIRECTORY && !WINDOWS) {
+            try (final FileChannel channel = FileChannel.open(dir, READ)) {
+                channel.force(true);
+            }
+        }
+    }
+
+    private void createDirectories(final Path dir) throws IOException {
+        if (Files.isDirectory(dir)) {
+            return;
+        }
+        // Find the missing directories, so that the entry for each can be flushed to its parent
+        final Deque<Path> missing = new ArrayDeque<>();
+        for (Path path = dir.toAbsolutePath(); path != null && !Files.isDirectory(path); path = path.getParent()) {
+            missing.push(path);
+        }
+        Files.createDirectories(dir);
+        for (final Path created : missing) {
+            syncDirectory(created.getParent());
+        }
+    }
+
+    private static void copy(final InputStream input, final FileChannel output) throws IOException {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int count;
+        while ((count = input.read(buffer)) >= 0) {
+            final ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, count);
+            while (bytes.hasRemaining()) {
+                output.write(bytes);
+            }
+        }
+    }
+
+    private void writeProperties(final Properties properties, final Path file) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        properties.store(output, null);
+        write(new ByteArrayInputStream(output.toByteArray()), file);
+    }
+
+    private static Properties readProperties(final Path file) throws IOException {
+        final Properties properties = new Properties();
+        try (final InputStream input = Files.newInputStream(file)) {
+            properties.load(input);
+        }
+        return properties;
+    }
+
+    private static Properties toProperties(final Map<String, String> map) {
+        final Properties properties = new Properties();
+        map.forEach(properties::setProperty);
+        return properties;
+    }
+
+    private static Map<String, String> toMap(final Properties properties) {
+        final Map<String, String> map = new HashMap<>();
+        properties.stringPropertyNames().forEach(key -> map.put(key, properties.getProperty(key)));
+        return map;
+    }
+
+    private static ByteBuffer copy(final FileChannel channel, final long offset, final int size) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Remove any temporary files and claimed uploads left behind by an interrupted process
+     */
+    private void cleanUp() throws IOException {
+        if (!Files.isDirectory(base)) {
+            return;
+        }
+        final Path uploads = base.resolve(UPLOADS);
+        final List<Path> stale = new ArrayList<>();
+        try (final Stream<Path> files = Files.walk(base)) {
+            files.filter(path -> {
+                final String name = path.getFileName().toString();
+                if (Files.isDirectory(path)) {
+                    return name.endsWith(COMPLETING_SUFFIX) && uploads.equals(path.getParent());
+                }
+                return TEMP_FILE.matcher(name).matches();
+            }).forEach(stale::add);
+        }
+        for (final Path path : stale) {
+            if (Files.isDirectory(path)) {
+                deleteDirectory(path);
+            } else {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static void deleteDirectory(final Path dir) throws IOException {
+        final List<Path> paths = new ArrayList<>();
+        try (final Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(paths::add);
+        }
+        for (final Path path : paths) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static Path metadataFile(final Path file) {
+        return file.resolveSibling(file.getFileName() + METADATA_SUFFIX);
+    }
+
+    private static void checkName(final String name) {
+        requireNonNull(name, "The name may not be null!");
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid name: " + name + "!");
+        }
+    }
+
+    private static MessageDigest sha256() {
+        return getDigest("SHA-256");
+    }
+
+    private static MessageDigest md5() {
+        return getDigest("MD5");
+    }
+
+    private static MessageDigest getDigest(final String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new RuntimeRepositoryException("Unsupported digest algorithm: " + algorithm, ex);
+        }
+    }
+
+    private static String hex(final byte[] bytes) {
+        final char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; ++i) {
+            chars[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[2 * i + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
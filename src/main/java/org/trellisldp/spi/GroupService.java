@@ -0,0 +1,46 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import java.util.Set;
+
+import org.apache.commons.rdf.api.IRI;
+
+/**
+ * The GroupService provides methods for resolving the groups (e.g. vcard:Group resources)
+ * of which an agent is a member, for use with acl:agentGroup authorizations.
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+public interface GroupService {
+
+    /**
+     * Get the groups of which an agent is a member
+     * @param agent the agent
+     * @return the group identifiers
+     */
+    Set<IRI> getGroups(IRI agent);
+
+    /**
+     * Test whether an agent is a member of a group
+     * @param agent the agent
+     * @param group the group
+     * @return whether the agent is a member of the group
+     */
+    default Boolean isMember(final IRI agent, final IRI group) {
+        return getGroups(agent).contains(group);
+    }
+}
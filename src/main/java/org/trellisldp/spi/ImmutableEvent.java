@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+import static java.util.Optional.ofNullable;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.commons.rdf.api.IRI;
+
+/**
+ * An immutable {@link Event}, used when events are read back from storage.
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+final class ImmutableEvent implements Event {
+
+    private final IRI identifier;
+    private final List<IRI> agents;
+    private final IRI target;
+    private final List<IRI> types;
+    private final List<IRI> targetTypes;
+    private final Instant created;
+    private final IRI inbox;
+
+    /**
+     * Create an immutable event
+     * @param identifier the event identifier
+     * @param agents the agents
+     * @param target the target, may be null
+     * @param types the event types
+     * @param targetTypes the target types
+     * @param created the creation time
+     * @param inbox the inbox, may be null
+     */
+    ImmutableEvent(final IRI identifier, final Collection<IRI> agents, final IRI target,
+            final Collection<IRI> types, final Collection<IRI> targetTypes, final Instant created,
+            final IRI inbox) {
+        this.identifier = requireNonNull(identifier, "The event identifier may not be null!");
+        this.agents = unmodifiableList(new ArrayList<>(agents));
+        this.target = target;
+        this.types = unmodifiableList(new ArrayList<>(types));
+        this.targetTypes = unmodifiableList(new ArrayList<>(targetTypes));
+        this.created = requireNonNull(created, "The event creation time may not be null!");
+        this.inbox = inbox;
+    }
+
+    @Override
+    public IRI getIdentifier() {
+        return identifier;
+    }
+
+    @Override
+    public Collection<IRI> getAgents() {
+        return agents;
+    }
+
+    @Override
+    public Optional<IRI> getTarget() {
+        return ofNullable(target);
+    }
+
+    @Override
+    public Collection<IRI> getTypes() {
+        return types;
+    }
+
+    @Override
+    public Collection<IRI> getTargetTypes() {
+        return targetTypes;
+    }
+
+    @Override
+    public Instant getCreated() {
+        return created;
+    }
+
+    @Override
+    public Optional<IRI> getInbox() {
+        return ofNullable(inbox);
+    }
+}
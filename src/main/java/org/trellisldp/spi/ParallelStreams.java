@@ -0,0 +1,153 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.Spliterator.ORDERED;
+import static java.util.stream.StreamSupport.stream;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Spliterators.AbstractSpliterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Utilities for lazily mapping a stream of values over an {@link Executor}, with a bounded
+ * number of in-flight operations.
+ *
+ * <p>The resulting stream only submits new work as elements are consumed, so a slow consumer
+ * applies back-pressure to the producer: at most {@code concurrency} operations are ever
+ * pending at any one time.</p>
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+final class ParallelStreams {
+
+    /**
+     * Map the elements of a stream in parallel
+     * @param <T> the type of the source elements
+     * @param <R> the type of the result elements
+     * @param source the source stream
+     * @param mapper the mapping function
+     * @param executor the executor on which to run the mapping function
+     * @param concurrency the maximum number of in-flight operations
+     * @param ordered whether to emit results in the order of the source stream;
+     *                if false, results are emitted in the order of completion
+     * @return a lazily evaluated stream of results
+     */
+    static <T, R> Stream<R> map(final Stream<T> source, final Function<T, R> mapper, final Executor executor,
+            final int concurrency, final boolean ordered) {
+        requireNonNull(source, "The source stream may not be null!");
+        requireNonNull(mapper, "The mapping function may not be null!");
+        requireNonNull(executor, "The executor may not be null!");
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("The concurrency level must be a positive value!");
+        }
+        final BoundedSpliterator<T, R> spliterator = new BoundedSpliterator<>(source.iterator(), mapper, executor,
+                concurrency, ordered);
+        return stream(spliterator, false).onClose(spliterator::cancel).onClose(source::close);
+    }
+
+    private static final class BoundedSpliterator<T, R> extends AbstractSpliterator<R> {
+
+        private final Iterator<T> source;
+        private final Function<T, R> mapper;
+        private final Executor executor;
+        private final Deque<Future<R>> pending = new ArrayDeque<>();
+        private final BlockingQueue<Future<R>> completed = new LinkedBlockingQueue<>();
+        private final int concurrency;
+        private final boolean ordered;
+
+        BoundedSpliterator(final Iterator<T> source, final Function<T, R> mapper, final Executor executor,
+                final int concurrency, final boolean ordered) {
+            super(Long.MAX_VALUE, ordered ? ORDERED : 0);
+            this.source = source;
+            this.mapper = mapper;
+            this.executor = executor;
+            this.concurrency = concurrency;
+            this.ordered = ordered;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super R> action) {
+            while (pending.size() < concurrency && source.hasNext()) {
+                final T item = source.next();
+                final FutureTask<R> task = new FutureTask<R>(() -> mapper.apply(item)) {
+                    @Override
+                    protected void done() {
+                        if (!ordered) {
+                            completed.add(this);
+                        }
+                    }
+                };
+                pending.add(task);
+                executor.execute(task);
+            }
+            if (pending.isEmpty()) {
+                return false;
+            }
+            action.accept(await(ordered ? pending.poll() : take()));
+            return true;
+        }
+
+        private Future<R> take() {
+            try {
+                final Future<R> future = completed.take();
+                pending.remove(future);
+                return future;
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new RuntimeRepositoryException("Interrupted while waiting for a result", ex);
+            }
+        }
+
+        private R await(final Future<R> future) {
+            try {
+                return future.get();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new RuntimeRepositoryException("Interrupted while waiting for a result", ex);
+            } catch (final ExecutionException ex) {
+                cancel();
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                }
+                throw new RuntimeRepositoryException(ex.getCause());
+            }
+        }
+
+        void cancel() {
+            pending.forEach(future -> future.cancel(true));
+            pending.clear();
+            completed.clear();
+        }
+    }
+
+    private ParallelStreams() {
+        // prevent instantiation
+    }
+}
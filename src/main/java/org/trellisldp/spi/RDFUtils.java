@@ -14,14 +14,10 @@
 package org.trellisldp.spi;
 
 import static java.util.Arrays.asList;
-import static java.util.Collections.unmodifiableMap;
-import static java.util.stream.Stream.concat;
-import static java.util.stream.Stream.of;
 import static org.trellisldp.vocabulary.RDF.type;
 import static org.trellisldp.vocabulary.Trellis.PreferAudit;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ServiceLoader;
@@ -34,7 +30,6 @@ import org.apache.commons.rdf.api.RDF;
 import org.apache.commons.rdf.api.RDFTerm;
 
 import org.trellisldp.vocabulary.AS;
-import org.trellisldp.vocabulary.LDP;
 import org.trellisldp.vocabulary.PROV;
 import org.trellisldp.vocabulary.XSD;
 
@@ -63,18 +58,7 @@ public final class RDFUtils {
     /**
      * A mapping of LDP types to their supertype
      */
-    public static final Map<IRI, IRI> superClassOf;
-
-    static {
-        final Map<IRI, IRI> data = new HashMap<>();
-        data.put(LDP.NonRDFSource, LDP.Resource);
-        data.put(LDP.RDFSource, LDP.Resource);
-        data.put(LDP.Container, LDP.RDFSource);
-        data.put(LDP.BasicContainer, LDP.Container);
-        data.put(LDP.DirectContainer, LDP.Container);
-        data.put(LDP.IndirectContainer, LDP.Container);
-        superClassOf = unmodifiableMap(data);
-    }
+    public static final Map<IRI, IRI> superClassOf = ResourceTypeHierarchy.ldp().getSuperTypes();
 
     /**
      * Get the Commons RDF instance in use
@@ -133,8 +117,21 @@ public final class RDFUtils {
      * @return a stream of types
      */
     public static Stream<IRI> ldpResourceTypes(final IRI interactionModel) {
-        return of(interactionModel).filter(type -> RDFUtils.superClassOf.containsKey(type) || LDP.Resource.equals(type))
-            .flatMap(type -> concat(ldpResourceTypes(RDFUtils.superClassOf.get(type)), of(type)));
+        return getResourceTypes(interactionModel).stream();
+    }
+
+    /**
+     * Get all of the LDP resource (super) types for the given LDP interaction model
+     *
+     * <p>The types are ordered from the root of the hierarchy ({@code ldp:Resource}) down to the
+     * interaction model itself. An unknown interaction model yields an empty list. Only the interaction
+     * models defined by LDP are known; see {@link ResourceTypeHierarchy} for other models.</p>
+     *
+     * @param interactionModel the interaction model
+     * @return an immutable list of types
+     */
+    public static List<IRI> getResourceTypes(final IRI interactionModel) {
+        return ResourceTypeHierarchy.ldp().getResourceTypes(interactionModel);
     }
 
     /**
@@ -0,0 +1,68 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * A simple rate limiter that spaces out permits evenly over time.
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+final class RateLimiter {
+
+    private final long intervalNanos;
+    private long next = System.nanoTime();
+
+    /**
+     * Create a rate limiter
+     * @param permitsPerSecond the number of permits issued per second; an infinite
+     *                         value disables rate limiting
+     */
+    RateLimiter(final double permitsPerSecond) {
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("The rate must be a positive value!");
+        }
+        this.intervalNanos = (long) (SECONDS.toNanos(1L) / permitsPerSecond);
+    }
+
+    /**
+     * Acquire a permit, blocking until one is available
+     */
+    void acquire() {
+        if (intervalNanos == 0L) {
+            return;
+        }
+        final long wait;
+        synchronized (this) {
+            final long now = System.nanoTime();
+            if (next - now < 0) {
+                next = now;
+            }
+            wait = next - now;
+            next += intervalNanos;
+        }
+        if (wait > 0) {
+            try {
+                NANOSECONDS.sleep(wait);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeRepositoryException("Interrupted while waiting for a permit", ex);
+            }
+        }
+    }
+}
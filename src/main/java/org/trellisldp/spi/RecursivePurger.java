@@ -0,0 +1,308 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Triple;
+import org.trellisldp.api.Resource;
+import org.trellisldp.vocabulary.LDP;
+
+/**
+ * A driver that purges a resource along with all of its descendants and any associated binaries.
+ *
+ * <p>Descendants are discovered depth-first, by following {@code ldp:contains} triples, and each
+ * resource is purged as soon as all of its children have been purged, so that an interrupted purge
+ * never leaves a resource whose parent has already been removed. Siblings are looked up in batches,
+ * with a single call to {@link ResourceService#getAll} for each batch. Only the path from the root to
+ * the current resource, along with the current batch of siblings at each level, is held in memory, so
+ * a purge needs memory in proportion to the depth of the tree rather than its size. Siblings are
+ * purged in parallel, with at most {@code concurrency} resources being purged at any one time, and
+ * the binaries released by each resource are removed through the {@link BinaryService} by the same
+ * task. A single rate limit applies to all of these
+ * operations, in order to protect the storage backend.</p>
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+public class RecursivePurger {
+
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * The outcome of a recursive purge
+     */
+    public static class Result {
+        private final long resources;
+        private final long binaries;
+
+        /**
+         * Create a purge result
+         * @param resources the number of resources purged
+         * @param binaries the number of binary objects purged
+         */
+        public Result(final long resources, final long binaries) {
+            this.resources = resources;
+            this.binaries = binaries;
+        }
+
+        /**
+         * The number of resources purged
+         * @return the number of resources
+         */
+        public long getResources() {
+            return resources;
+        }
+
+        /**
+         * The number of binary objects purged
+         * @return the number of binary objects
+         */
+        public long getBinaries() {
+            return binaries;
+        }
+    }
+
+    private final ResourceService resourceService;
+    private final BinaryService binaryService;
+    private final Executor executor;
+    private final int concurrency;
+    private final RateLimiter limiter;
+
+    /**
+     * Create a recursive purger
+     * @param resourceService the resource service
+     * @param binaryService the binary service
+     * @param executor the executor on which purge operations are run
+     * @param concurrency the maximum number of resources purged at any one time
+     * @param operationsPerSecond the maximum number of purge operations per second
+     */
+    public RecursivePurger(final ResourceService resourceService, final BinaryService binaryService,
+            final Executor executor, final int concurrency, final double operationsPerSecond) {
+        requireNonNull(resourceService, "The resource service may not be null!");
+        requireNonNull(binaryService, "The binary service may not be null!");
+        requireNonNull(executor, "The executor may not be null!");
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("The concurrency level must be a positive value!");
+        }
+        this.resourceService = resourceService;
+        this.binaryService = binaryService;
+        this.executor = executor;
+        this.concurrency = concurrency;
+        this.limiter = new RateLimiter(operationsPerSecond);
+    }
+
+    /**
+     * Purge a resource, all of its descendants and any associated binaries
+     * @param partition the partition
+     * @param identifier the resource identifier
+     * @return the outcome of the purge
+     */
+    public Result purge(final String partition, final IRI identifier) {
+        requireNonNull(identifier, "The identifier may not be null!");
+
+        final Purge purge = new Purge(partition);
+        final Pending root = new Pending();
+        final Deque<Node> path = new ArrayDeque<>();
+        final Set<IRI> ancestors = new HashSet<>();
+        path.push(fetch(singletonList(identifier)).remove());
+        ancestors.add(identifier);
+        try {
+            while (!path.isEmpty()) {
+                final Node node = path.peek();
+                if (node.fetched.isEmpty() && node.children.hasNext()) {
+                    final List<IRI> batch = new ArrayList<>(BATCH_SIZE);
+                    while (batch.size() < BATCH_SIZE && node.children.hasNext()) {
+                        batch.add(node.children.next());
+                    }
+                    node.fetched.addAll(fetch(batch));
+                }
+                if (!node.fetched.isEmpty()) {
+                    final Node child = node.fetched.remove();
+                    // A resource that contains one of its own ancestors is not followed again
+                    if (ancestors.add(child.identifier)) {
+                        path.push(child);
+                    }
+                } else {
+                    path.pop();
+                    ancestors.remove(node.identifier);
+                    purge.await(node.pending);
+                    purge.submit(node.identifier, path.isEmpty() ? root : path.peek().pending);
+                }
+            }
+            purge.await(root);
+        } finally {
+            purge.drain();
+        }
+        return new Result(purge.resources.get(), purge.binaries.get());
+    }
+
+    /**
+     * Look up a batch of sibling resources with a single call to {@link ResourceService#getAll}
+     * @param identifiers the resource identifiers
+     * @return a node for each resource, holding the identifiers of its children
+     */
+    private Deque<Node> fetch(final List<IRI> identifiers) {
+        final Map<IRI, List<IRI>> children = new HashMap<>();
+        try (final Stream<Resource> resources = resourceService.getAll(identifiers)) {
+            resources.forEach(resource -> children.put(resource.getIdentifier(), children(resource)));
+        }
+        final Deque<Node> nodes = new ArrayDeque<>(identifiers.size());
+        for (final IRI identifier : identifiers) {
+            nodes.add(new Node(identifier, children.getOrDefault(identifier, emptyList()).iterator()));
+        }
+        return nodes;
+    }
+
+    private static List<IRI> children(final Resource resource) {
+        try (final Stream<? extends Triple> triples = resource.stream(LDP.PreferContainment)) {
+            return triples.filter(triple -> LDP.contains.equals(triple.getPredicate())).map(Triple::getObject)
+                .filter(x -> x instanceof IRI).map(x -> (IRI) x).collect(toList());
+        }
+    }
+
+    /**
+     * The state of a single purge operation
+     */
+    private final class Purge {
+        private final String partition;
+        private final Semaphore permits = new Semaphore(concurrency);
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        private final AtomicLong resources = new AtomicLong();
+        private final AtomicLong binaries = new AtomicLong();
+
+        Purge(final String partition) {
+            this.partition = partition;
+        }
+
+        void submit(final IRI identifier, final Pending parent) {
+            try {
+                permits.acquire();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeRepositoryException("Interrupted while waiting to purge a resource", ex);
+            }
+            parent.add();
+            try {
+                executor.execute(() -> {
+                    try {
+                        if (failure.get() == null) {
+                            purge(identifier);
+                        }
+                    } catch (final RuntimeException ex) {
+                        failure.compareAndSet(null, ex);
+                    } finally {
+                        parent.done();
+                        permits.release();
+                    }
+                });
+            } catch (final RejectedExecutionException ex) {
+                parent.done();
+                permits.release();
+                throw ex;
+            }
+        }
+
+        void await(final Pending pending) {
+            try {
+                pending.await();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeRepositoryException("Interrupted while waiting for a purge", ex);
+            }
+            final RuntimeException ex = failure.get();
+            if (ex != null) {
+                throw ex;
+            }
+        }
+
+        void drain() {
+            // Wait for any running operations, even if the purge did not complete
+            permits.acquireUninterruptibly(concurrency);
+            permits.release(concurrency);
+        }
+
+        private void purge(final IRI identifier) {
+            limiter.acquire();
+            try (final Stream<IRI> released = resourceService.purge(identifier)) {
+                resources.incrementAndGet();
+                released.forEach(binary -> {
+                    limiter.acquire();
+                    binaryService.purgeContent(partition, binary);
+                    binaries.incrementAndGet();
+                });
+            }
+        }
+    }
+
+    /**
+     * A node on the path from the root to the resource being visited
+     */
+    private static final class Node {
+        private final IRI identifier;
+        private final Iterator<IRI> children;
+        private final Deque<Node> fetched = new ArrayDeque<>();
+        private final Pending pending = new Pending();
+
+        Node(final IRI identifier, final Iterator<IRI> children) {
+            this.identifier = identifier;
+            this.children = children;
+        }
+    }
+
+    /**
+     * A count of the purge operations that are still running for the children of a resource
+     */
+    private static final class Pending {
+        private int count = 0;
+
+        synchronized void add() {
+            count += 1;
+        }
+
+        synchronized void done() {
+            count -= 1;
+            if (count == 0) {
+                notifyAll();
+            }
+        }
+
+        synchronized void await() throws InterruptedException {
+            while (count > 0) {
+                wait();
+            }
+        }
+    }
+}
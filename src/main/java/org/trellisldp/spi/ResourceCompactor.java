@@ -0,0 +1,336 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.toList;
+import static org.trellisldp.spi.RDFUtils.getInstance;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Triple;
+
+/**
+ * A driver that compacts every resource in a partition, using {@link ResourceService#compact}.
+ *
+ * <p>Resources are compacted in parallel, with a bounded number of concurrent operations and
+ * an optional limit on the number of resources compacted per second. Progress is recorded in a
+ * {@link Checkpoint} so that an interrupted run can resume where it left off. Resuming relies on
+ * {@link ResourceService#list} returning resources in a stable order. If the checkpointed resource
+ * is no longer listed, for instance because it has since been purged, the position of the run is
+ * unknown and the partition is compacted again from the start.</p>
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+public class ResourceCompactor {
+
+    /**
+     * A record of the last resource to have been compacted in a partition
+     */
+    public interface Checkpoint {
+
+        /**
+         * Load the checkpoint for a partition
+         * @param partition the partition
+         * @return the last resource known to have been compacted, if any
+         */
+        Optional<IRI> load(String partition);
+
+        /**
+         * Save the checkpoint for a partition
+         * @param partition the partition
+         * @param identifier the last resource known to have been compacted; all resources
+         *                   listed before this one have also been compacted
+         */
+        void save(String partition, IRI identifier);
+
+        /**
+         * Clear the checkpoint for a partition, once compaction is complete
+         * @param partition the partition
+         */
+        void clear(String partition);
+
+        /**
+         * Create a checkpoint that is held in memory
+         * @return the checkpoint
+         */
+        static Checkpoint inMemory() {
+            final Map<String, IRI> data = new ConcurrentHashMap<>();
+            return new Checkpoint() {
+                @Override
+                public Optional<IRI> load(final String partition) {
+                    return ofNullable(data.get(partition));
+                }
+
+                @Override
+                public void save(final String partition, final IRI identifier) {
+                    data.put(partition, identifier);
+                }
+
+                @Override
+                public void clear(final String partition) {
+                    data.remove(partition);
+                }
+            };
+        }
+
+        /**
+         * Create a checkpoint that is persisted to a properties file
+         * @param file the file
+         * @return the checkpoint
+         */
+        static Checkpoint file(final Path file) {
+            return new FileCheckpoint(file);
+        }
+    }
+
+    /**
+     * The outcome of a compaction run
+     */
+    public static class Result {
+        private final long resources;
+        private final long binaries;
+
+        /**
+         * Create a compaction result
+         * @param resources the number of resources compacted
+         * @param binaries the number of binary objects that can be purged
+         */
+        public Result(final long resources, final long binaries) {
+            this.resources = resources;
+            this.binaries = binaries;
+        }
+
+        /**
+         * The number of resources compacted during this run
+         * @return the number of resources
+         */
+        public long getResources() {
+            return resources;
+        }
+
+        /**
+         * The number of binary objects released during this run
+         * @return the number of binary objects that can be purged
+         */
+        public long getBinaries() {
+            return binaries;
+        }
+    }
+
+    private final ResourceService service;
+    private final Executor executor;
+    private final int concurrency;
+    private final RateLimiter limiter;
+    private final int checkpointInterval;
+
+    /**
+     * Create a resource compactor
+     * @param service the resource service
+     * @param executor the executor on which resources are compacted
+     * @param concurrency the maximum number of resources compacted at any one time
+     */
+    public ResourceCompactor(final ResourceService service, final Executor executor, final int concurrency) {
+        this(service, executor, concurrency, Double.POSITIVE_INFINITY, 100);
+    }
+
+    /**
+     * Create a resource compactor
+     * @param service the resource service
+     * @param executor the executor on which resources are compacted
+     * @param concurrency the maximum number of resources compacted at any one time
+     * @param resourcesPerSecond the maximum number of resources compacted per second
+     * @param checkpointInterval the number of resources compacted between checkpoints
+     */
+    public ResourceCompactor(final ResourceService service, final Executor executor, final int concurrency,
+            final double resourcesPerSecond, final int checkpointInterval) {
+        requireNonNull(service, "The resource service may not be null!");
+        requireNonNull(executor, "The executor may not be null!");
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("The concurrency must be a positive value!");
+        }
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("The checkpoint interval must be a positive value!");
+        }
+        this.service = service;
+        this.executor = executor;
+        this.concurrency = concurrency;
+        this.limiter = new RateLimiter(resourcesPerSecond);
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Compact all of the resources in a partition
+     * @param partition the partition
+     * @param from a time after which a resource is to be compacted
+     * @param until a time before which a resource is to be compacted
+     * @param checkpoint the checkpoint used to record and resume progress
+     * @param binaries a consumer for the binary IRIs that can be safely purged
+     * @return the outcome of the compaction
+     */
+    public Result compact(final String partition, final Instant from, final Instant until,
+            final Checkpoint checkpoint, final Consumer<IRI> binaries) {
+        requireNonNull(checkpoint, "The checkpoint may not be null!");
+        requireNonNull(binaries, "The binary consumer may not be null!");
+
+        final Optional<IRI> resume = checkpoint.load(partition);
+        final Result result = run(partition, from, until, resume, checkpoint, binaries)
+            .orElseGet(() -> run(partition, from, until, empty(), checkpoint, binaries).get());
+        checkpoint.clear(partition);
+        return result;
+    }
+
+    /**
+     * Compact the resources in a partition that are listed after a checkpointed resource
+     * @return the outcome, or empty if the checkpointed resource was not listed
+     */
+    private Optional<Result> run(final String partition, final Instant from, final Instant until,
+            final Optional<IRI> resume, final Checkpoint checkpoint, final Consumer<IRI> binaries) {
+        final AtomicBoolean resumed = new AtomicBoolean(!resume.isPresent());
+        final Stream<IRI> identifiers = service.list(partition).map(Triple::getSubject)
+            .filter(x -> x instanceof IRI).map(x -> (IRI) x)
+            .filter(id -> {
+                if (resumed.get()) {
+                    return true;
+                }
+                // Skip every resource up to and including the checkpointed resource
+                resumed.set(resume.get().equals(id));
+                return false;
+            });
+        final Function<IRI, Map.Entry<IRI, List<IRI>>> compactor = id -> {
+            limiter.acquire();
+            return new SimpleImmutableEntry<>(id, service.compact(id, from, until).collect(toList()));
+        };
+
+        long resources = 0L;
+        long released = 0L;
+        try (final Stream<Map.Entry<IRI, List<IRI>>> results = ParallelStreams.map(identifiers, compactor, executor,
+                    concurrency, true)) {
+            final Iterator<Map.Entry<IRI, List<IRI>>> iter = results.iterator();
+            while (iter.hasNext()) {
+                final Map.Entry<IRI, List<IRI>> result = iter.next();
+                result.getValue().forEach(binaries);
+                released += result.getValue().size();
+                resources += 1L;
+                // Results arrive in list order, so every earlier resource has also been compacted
+                if (resources % checkpointInterval == 0L) {
+                    checkpoint.save(partition, result.getKey());
+                }
+            }
+        }
+        if (!resumed.get()) {
+            return empty();
+        }
+        return of(new Result(resources, released));
+    }
+
+    private static final class FileCheckpoint implements Checkpoint {
+
+        private final Path file;
+
+        FileCheckpoint(final Path file) {
+            this.file = requireNonNull(file, "The checkpoint file may not be null!");
+        }
+
+        @Override
+        public synchronized Optional<IRI> load(final String partition) {
+            return ofNullable(read().getProperty(partition)).map(getInstance()::createIRI);
+        }
+
+        @Override
+        public synchronized void save(final String partition, final IRI identifier) {
+            final Properties data = read();
+            data.setProperty(partition, identifier.getIRIString());
+            write(data);
+        }
+
+        @Override
+        public synchronized void clear(final String partition) {
+            final Properties data = read();
+            if (data.remove(partition) != null) {
+                write(data);
+            }
+        }
+
+        private Properties read() {
+            final Properties data = new Properties();
+            if (Files.exists(file)) {
+                try (final InputStream input = newInputStream(file);
+                        final Reader reader = new InputStreamReader(input, UTF_8)) {
+                    data.load(reader);
+                } catch (final IOException ex) {
+                    throw new RuntimeRepositoryException("Error reading checkpoint file: " + file, ex);
+                }
+            }
+            return data;
+        }
+
+        private void write(final Properties data) {
+            final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try {
+                final ByteArrayOutputStream output = new ByteArrayOutputStream();
+                try (final Writer writer = new OutputStreamWriter(output, UTF_8)) {
+                    data.store(writer, null);
+                }
+                // Flush the new checkpoint to disk before it replaces the old one
+                try (final FileChannel channel = FileChannel.open(tmp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+                    final ByteBuffer buffer = ByteBuffer.wrap(output.toByteArray());
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(true);
+                }
+                Files.move(tmp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+            } catch (final IOException ex) {
+                throw new RuntimeRepositoryException("Error writing checkpoint file: " + file, ex);
+            }
+        }
+    }
+}
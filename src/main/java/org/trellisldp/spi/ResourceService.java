@@ -13,13 +13,21 @@
  */
 package org.trellisldp.spi;
 
+import static java.util.Collections.emptyList;
 import static java.util.Optional.of;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.stream.Collectors.toList;
 import static org.trellisldp.spi.RDFUtils.TRELLIS_BNODE_PREFIX;
 import static org.trellisldp.spi.RDFUtils.getInstance;
 
 import java.time.Instant;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -56,6 +64,65 @@ public interface ResourceService {
      */
     Optional<Resource> get(IRI identifier, Instant time);
 
+    /**
+     * Asynchronously get a resource from the given location
+     * @param identifier the resource identifier
+     * @param executor the executor used by the default implementation
+     * @return the resource, once it has been retrieved
+     *
+     * <p>Note: the default implementation runs {@link #get(IRI)} on the supplied executor;
+     * implementations with a non-blocking datastore client should override this method.</p>
+     */
+    default CompletionStage<Optional<Resource>> getAsync(final IRI identifier, final Executor executor) {
+        return supplyAsync(() -> get(identifier), executor);
+    }
+
+    /**
+     * Asynchronously get a resource from the given location and time
+     * @param identifier the resource identifier
+     * @param time the time
+     * @param executor the executor used by the default implementation
+     * @return the resource, once it has been retrieved
+     *
+     * <p>Note: the default implementation runs {@link #get(IRI, Instant)} on the supplied executor;
+     * implementations with a non-blocking datastore client should override this method.</p>
+     */
+    default CompletionStage<Optional<Resource>> getAsync(final IRI identifier, final Instant time,
+            final Executor executor) {
+        return supplyAsync(() -> get(identifier, time), executor);
+    }
+
+    /**
+     * Get the resources at the given locations
+     * @param identifiers the resource identifiers
+     * @return the resources that exist, in no particular order
+     *
+     * <p>Note: the default implementation retrieves each resource individually; implementations
+     * are encouraged to override this method so that the lookup can be coalesced into a single
+     * request to the underlying datastore.</p>
+     */
+    default Stream<Resource> getAll(final Collection<IRI> identifiers) {
+        return identifiers.stream().map(this::get)
+            // TODO - JDK9 optional to stream
+            .flatMap(res -> res.map(Stream::of).orElseGet(Stream::empty));
+    }
+
+    /**
+     * Get the resources at the given locations and time
+     * @param identifiers the resource identifiers
+     * @param time the time
+     * @return the resources that exist, in no particular order
+     *
+     * <p>Note: the default implementation retrieves each resource individually; implementations
+     * are encouraged to override this method so that the lookup can be coalesced into a single
+     * request to the underlying datastore.</p>
+     */
+    default Stream<Resource> getAll(final Collection<IRI> identifiers, final Instant time) {
+        return identifiers.stream().map(id -> get(id, time))
+            // TODO - JDK9 optional to stream
+            .flatMap(res -> res.map(Stream::of).orElseGet(Stream::empty));
+    }
+
     /**
      * Put a resource into the repository
      * @param identifier the identifier for the new resource
@@ -64,6 +131,36 @@ public interface ResourceService {
      */
     Boolean put(IRI identifier, Dataset dataset);
 
+    /**
+     * Put several resources into the repository
+     * @param datasets the datasets, keyed by resource identifier
+     * @return whether each resource was added, keyed by resource identifier
+     *
+     * <p>Note: the default implementation adds each resource individually, in iteration order;
+     * implementations are encouraged to override this method so that the resources are written
+     * in a single transaction.</p>
+     */
+    default Map<IRI, Boolean> putAll(final Map<IRI, Dataset> datasets) {
+        final Map<IRI, Boolean> results = new LinkedHashMap<>();
+        datasets.forEach((identifier, dataset) -> results.put(identifier, put(identifier, dataset)));
+        return results;
+    }
+
+    /**
+     * Asynchronously put a resource into the repository
+     * @param identifier the identifier for the new resource
+     * @param dataset the dataset
+     * @param executor the executor used by the default implementation
+     * @return whether the resource was added, once the operation has completed
+     *
+     * <p>Note: the default implementation runs {@link #put(IRI, Dataset)} on the supplied executor;
+     * implementations with a non-blocking datastore client should override this method.</p>
+     */
+    default CompletionStage<Boolean> putAsync(final IRI identifier, final Dataset dataset,
+            final Executor executor) {
+        return supplyAsync(() -> put(identifier, dataset), executor);
+    }
+
     /**
      * Get the identifier for the structurally-logical container for the resource
      * @param identifier the identifier
@@ -93,6 +190,35 @@ public interface ResourceService {
      */
     Stream<IRI> purge(IRI identifier);
 
+    /**
+     * Asynchronously compact (i.e. remove the history) of a resource
+     * @param identifier the identifier
+     * @param from a time after which a resource is to be compacted
+     * @param until a time before which a resource is to be compacted
+     * @param executor the executor used by the default implementation
+     * @return a list of binary IRIs that can be safely purged, once the operation has completed
+     *
+     * <p>Note: the default implementation runs {@link #compact(IRI, Instant, Instant)} on the supplied
+     * executor; implementations with a non-blocking datastore client should override this method.</p>
+     */
+    default CompletionStage<List<IRI>> compactAsync(final IRI identifier, final Instant from, final Instant until,
+            final Executor executor) {
+        return supplyAsync(() -> compact(identifier, from, until).collect(toList()), executor);
+    }
+
+    /**
+     * Asynchronously purge a resource from the repository
+     * @param identifier the identifier
+     * @param executor the executor used by the default implementation
+     * @return a list of binary IRIs that can be safely purged, once the operation has completed
+     *
+     * <p>Note: the default implementation runs {@link #purge(IRI)} on the supplied executor;
+     * implementations with a non-blocking datastore client should override this method.</p>
+     */
+    default CompletionStage<List<IRI>> purgeAsync(final IRI identifier, final Executor executor) {
+        return supplyAsync(() -> purge(identifier).collect(toList()), executor);
+    }
+
     /**
      * Get a list of resources in the partition
      * @param partition the partition
@@ -142,6 +268,34 @@ public interface ResourceService {
                 getInstance().createQuad(resource.getIdentifier(), q.getSubject(), q.getPredicate(), q.getObject())));
     }
 
+    /**
+     * Export the complete repository as a stream of Quads, exporting resources in parallel
+     * @param partition the partition to export
+     * @param graphNames the graph names to export
+     * @param executor the executor used to fetch and read resources
+     * @param concurrency the maximum number of resources exported at any one time
+     * @param ordered whether resources are emitted in the order given by {@link #list(String)};
+     *                if false, resources are emitted as soon as they have been fetched
+     * @return a stream of quads, where each named graph refers to the resource identifier
+     *
+     * <p>Note: the returned stream is lazy; resources are only exported as the stream is consumed,
+     * and no more than {@code concurrency} resources are ever in flight. Each resource is both fetched and
+     * read on the executor, so the quads for each in-flight resource are held in memory until they are
+     * emitted. The quads for any single resource are always emitted contiguously. The stream should be
+     * closed if it is not fully consumed.</p>
+     */
+    default Stream<? extends Quad> export(final String partition, final Collection<IRI> graphNames,
+            final Executor executor, final int concurrency, final boolean ordered) {
+        final Stream<IRI> identifiers = list(partition).map(Triple::getSubject).filter(x -> x instanceof IRI)
+            .map(x -> (IRI) x);
+        return ParallelStreams.map(identifiers, id -> get(id).map(resource -> {
+                try (final Stream<? extends Triple> triples = resource.stream(graphNames)) {
+                    return triples.map(t -> getInstance().createQuad(resource.getIdentifier(), t.getSubject(),
+                                t.getPredicate(), t.getObject())).collect(toList());
+                }
+            }).orElse(emptyList()), executor, concurrency, ordered).flatMap(List::stream);
+    }
+
     /**
      * An identifier supplier
      * @return a supplier of identifiers for new resources
@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.requireNonNull;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.commons.rdf.api.IRI;
+import org.trellisldp.vocabulary.LDP;
+
+/**
+ * An immutable hierarchy of LDP interaction models, in which the supertypes of each model are precomputed.
+ *
+ * <p>{@link #ldp} holds the interaction models defined by LDP, and is the hierarchy used by
+ * {@link RDFUtils#ldpResourceTypes}. Additional interaction models are added with
+ * {@link #withInteractionModel}, which returns a new hierarchy, so that a component that supports other
+ * interaction models can be given its own hierarchy without affecting any other component.</p>
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+public final class ResourceTypeHierarchy {
+
+    private static final ResourceTypeHierarchy LDP_HIERARCHY = new ResourceTypeHierarchy(
+            singletonMap(LDP.Resource, singletonList(LDP.Resource)))
+        .withInteractionModel(LDP.NonRDFSource, LDP.Resource)
+        .withInteractionModel(LDP.RDFSource, LDP.Resource)
+        .withInteractionModel(LDP.Container, LDP.RDFSource)
+        .withInteractionModel(LDP.BasicContainer, LDP.Container)
+        .withInteractionModel(LDP.DirectContainer, LDP.Container)
+        .withInteractionModel(LDP.IndirectContainer, LDP.Container);
+
+    private final Map<IRI, List<IRI>> resourceTypes;
+
+    private ResourceTypeHierarchy(final Map<IRI, List<IRI>> resourceTypes) {
+        this.resourceTypes = resourceTypes;
+    }
+
+    /**
+     * Get the hierarchy of the interaction models defined by LDP
+     * @return the hierarchy
+     */
+    public static ResourceTypeHierarchy ldp() {
+        return LDP_HIERARCHY;
+    }
+
+    /**
+     * Create a hierarchy that includes an additional interaction model
+     * @param interactionModel the interaction model
+     * @param superType the supertype of the interaction model, which must already be in this hierarchy
+     * @return a new hierarchy; this hierarchy is not modified
+     */
+    public ResourceTypeHierarchy withInteractionModel(final IRI interactionModel, final IRI superType) {
+        requireNonNull(interactionModel, "The interaction model may not be null!");
+        requireNonNull(superType, "The supertype may not be null!");
+        if (resourceTypes.containsKey(interactionModel)) {
+            throw new IllegalArgumentException("The interaction model " + interactionModel + " is already known!");
+        }
+        if (!resourceTypes.containsKey(superType)) {
+            throw new IllegalArgumentException("The supertype " + superType + " is not a known LDP type!");
+        }
+        final List<IRI> types = new ArrayList<>(resourceTypes.get(superType));
+        types.add(interactionModel);
+        final Map<IRI, List<IRI>> data = new HashMap<>(resourceTypes);
+        data.put(interactionModel, unmodifiableList(types));
+        return new ResourceTypeHierarchy(unmodifiableMap(data));
+    }
+
+    /**
+     * Get all of the LDP resource (super) types for the given LDP interaction model
+     *
+     * <p>The types are ordered from the root of the hierarchy ({@code ldp:Resource}) down to the
+     * interaction model itself. An unknown interaction model yields an empty list.</p>
+     *
+     * @param interactionModel the interaction model
+     * @return an immutable list of types
+     */
+    public List<IRI> getResourceTypes(final IRI interactionModel) {
+        return resourceTypes.getOrDefault(interactionModel, emptyList());
+    }
+
+    /**
+     * Get the direct supertype of an interaction model
+     * @param interactionModel the interaction model
+     * @return the supertype, if the interaction model is known and is not the root of the hierarchy
+     */
+    public Optional<IRI> getSuperType(final IRI interactionModel) {
+        final List<IRI> types = getResourceTypes(interactionModel);
+        if (types.size() < 2) {
+            return empty();
+        }
+        return of(types.get(types.size() - 2));
+    }
+
+    /**
+     * Get a mapping of each interaction model to its direct supertype
+     * @return an immutable map
+     */
+    public Map<IRI, IRI> getSuperTypes() {
+        final Map<IRI, IRI> data = new HashMap<>();
+        resourceTypes.keySet().forEach(model -> getSuperType(model).ifPresent(type -> data.put(model, type)));
+        return unmodifiableMap(data);
+    }
+}
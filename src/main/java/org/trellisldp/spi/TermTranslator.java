@@ -0,0 +1,168 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Objects.requireNonNull;
+import static org.trellisldp.spi.RDFUtils.TRELLIS_PREFIX;
+import static org.trellisldp.spi.RDFUtils.getInstance;
+
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.BlankNodeOrIRI;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Quad;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.Triple;
+
+/**
+ * A reusable translator between internal ({@code trellis:}) and external (base URL) IRIs.
+ *
+ * <p>This has the same semantics as {@link RDFUtils#toExternalTerm} and {@link RDFUtils#toInternalTerm},
+ * but translated IRIs are held in bounded caches, so that frequently occurring IRIs, such as container
+ * identifiers, are not re-created for every triple. A cache hit does not take a lock, so a single translator
+ * can be shared by many threads. Triples and quads are only re-created when at least one of their terms is
+ * translated.</p>
+ *
+ * @author acoburn
+ * @deprecated Please use the org.trellisldp.api package instead
+ */
+@Deprecated
+public class TermTranslator {
+
+    private final String baseUrl;
+    private final ClockCache<String, IRI> external;
+    private final ClockCache<String, IRI> internal;
+
+    /**
+     * Create a term translator for a base URL
+     * @param baseUrl the base URL
+     * @param cacheSize the maximum number of translated IRIs to cache, in each direction
+     */
+    public TermTranslator(final String baseUrl, final int cacheSize) {
+        requireNonNull(baseUrl, "The base URL may not be null!");
+        this.baseUrl = baseUrl;
+        this.external = new ClockCache<>(cacheSize);
+        this.internal = new ClockCache<>(cacheSize);
+    }
+
+    /**
+     * Get the base URL used by this translator
+     * @return the base URL
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Convert an internal term to an external term
+     * @param <T> the RDF term type
+     * @param term the RDF term
+     * @return a converted RDF term
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends RDFTerm> T toExternal(final T term) {
+        if (term instanceof IRI) {
+            final String iri = ((IRI) term).getIRIString();
+            if (iri.startsWith(TRELLIS_PREFIX)) {
+                return (T) translate(external, iri, TRELLIS_PREFIX.length(), baseUrl);
+            }
+        }
+        return term;
+    }
+
+    /**
+     * Convert an external term to an internal term
+     * @param <T> the RDF term type
+     * @param term the RDF term
+     * @return a converted RDF term
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends RDFTerm> T toInternal(final T term) {
+        if (term instanceof IRI) {
+            final String iri = ((IRI) term).getIRIString();
+            if (iri.startsWith(baseUrl)) {
+                return (T) translate(internal, iri, baseUrl.length(), TRELLIS_PREFIX);
+            }
+        }
+        return term;
+    }
+
+    /**
+     * Convert a stream of internal triples to external triples
+     * @param triples the triples
+     * @return the converted triples
+     */
+    public Stream<Triple> toExternalTriples(final Stream<? extends Triple> triples) {
+        return triples.map(triple -> triple(triple, toExternal(triple.getSubject()), toExternal(triple.getPredicate()),
+                        toExternal(triple.getObject())));
+    }
+
+    /**
+     * Convert a stream of external triples to internal triples
+     * @param triples the triples
+     * @return the converted triples
+     */
+    public Stream<Triple> toInternalTriples(final Stream<? extends Triple> triples) {
+        return triples.map(triple -> triple(triple, toInternal(triple.getSubject()), toInternal(triple.getPredicate()),
+                        toInternal(triple.getObject())));
+    }
+
+    /**
+     * Convert a stream of internal quads to external quads
+     * @param quads the quads
+     * @return the converted quads
+     */
+    public Stream<Quad> toExternalQuads(final Stream<? extends Quad> quads) {
+        return quads.map(quad -> quad(quad, quad.getGraphName().map(this::toExternal).orElse(null),
+                        toExternal(quad.getSubject()), toExternal(quad.getPredicate()), toExternal(quad.getObject())));
+    }
+
+    /**
+     * Convert a stream of external quads to internal quads
+     * @param quads the quads
+     * @return the converted quads
+     */
+    public Stream<Quad> toInternalQuads(final Stream<? extends Quad> quads) {
+        return quads.map(quad -> quad(quad, quad.getGraphName().map(this::toInternal).orElse(null),
+                        toInternal(quad.getSubject()), toInternal(quad.getPredicate()), toInternal(quad.getObject())));
+    }
+
+    private static IRI translate(final ClockCache<String, IRI> cache, final String iri, final int offset,
+            final String prefix) {
+        final IRI cached = cache.get(iri);
+        if (cached != null) {
+            return cached;
+        }
+        final IRI translated = getInstance().createIRI(prefix + iri.substring(offset));
+        cache.put(iri, translated);
+        return translated;
+    }
+
+    private static Triple triple(final Triple triple, final BlankNodeOrIRI subject, final IRI predicate,
+            final RDFTerm object) {
+        if (subject == triple.getSubject() && predicate == triple.getPredicate() && object == triple.getObject()) {
+            return triple;
+        }
+        return getInstance().createTriple(subject, predicate, object);
+    }
+
+    private static Quad quad(final Quad quad, final BlankNodeOrIRI graphName, final BlankNodeOrIRI subject,
+            final IRI predicate, final RDFTerm object) {
+        if (graphName == quad.getGraphName().orElse(null) && subject == quad.getSubject()
+                && predicate == quad.getPredicate() && object == quad.getObject()) {
+            return quad;
+        }
+        return getInstance().createQuad(graphName, subject, predicate, object);
+    }
+}
@@ -13,12 +13,16 @@
  */
 package org.trellisldp.spi;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.when;
 
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
 import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.RDF;
 import org.apache.commons.rdf.simple.SimpleRDF;
@@ -28,6 +32,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.trellisldp.vocabulary.ACL;
 
 /**
  * @author acoburn
@@ -51,6 +56,7 @@ public class AccessControlServiceTest {
         doCallRealMethod().when(mockAccessControlService).canWrite(any(), any());
         doCallRealMethod().when(mockAccessControlService).canAppend(any(), any());
         doCallRealMethod().when(mockAccessControlService).canControl(any(), any());
+        doCallRealMethod().when(mockAccessControlService).getAccessModes(any(), any());
     }
 
     @Test
@@ -72,4 +78,37 @@ public class AccessControlServiceTest {
         assertFalse(mockAccessControlService.canAppend(mockSession, identifier));
         assertFalse(mockAccessControlService.canControl(mockSession, identifier));
     }
+
+    @Test
+    public void testDefaultGetAccessModes() {
+        when(mockAccessControlService.anyMatch(any(), any(), any())).thenAnswer(inv -> {
+            final Predicate<IRI> predicate = inv.getArgument(2);
+            return predicate.test(ACL.Read) || predicate.test(ACL.Append);
+        });
+
+        assertEquals(AccessModes.READ | AccessModes.APPEND,
+                mockAccessControlService.getAccessModes(mockSession, identifier));
+    }
+
+    @Test
+    public void testDefaultGetAccessModesAll() {
+        when(mockAccessControlService.anyMatch(any(), any(), any())).thenAnswer(inv -> {
+            final Predicate<IRI> predicate = inv.getArgument(2);
+            return Stream.of(ACL.Read, ACL.Write, ACL.Append, ACL.Control, ACL.Read).anyMatch(predicate);
+        });
+
+        assertEquals(AccessModes.ALL, mockAccessControlService.getAccessModes(mockSession, identifier));
+    }
+
+    @Test
+    public void testDefaultGetAccessModesRejected() {
+        // The predicate is tested against every mode, but the result is rejected, e.g. by a delegation check
+        when(mockAccessControlService.anyMatch(any(), any(), any())).thenAnswer(inv -> {
+            final Predicate<IRI> predicate = inv.getArgument(2);
+            Stream.of(ACL.Read, ACL.Write, ACL.Append, ACL.Control).forEach(predicate::test);
+            return false;
+        });
+
+        assertEquals(AccessModes.NONE, mockAccessControlService.getAccessModes(mockSession, identifier));
+    }
 }
@@ -0,0 +1,46 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.trellisldp.vocabulary.ACL;
+import org.trellisldp.vocabulary.DC;
+
+/**
+ * @author acoburn
+ */
+public class AccessModesTest {
+
+    @Test
+    public void testOf() {
+        assertEquals(AccessModes.READ, AccessModes.of(ACL.Read));
+        assertEquals(AccessModes.WRITE, AccessModes.of(ACL.Write));
+        assertEquals(AccessModes.APPEND, AccessModes.of(ACL.Append));
+        assertEquals(AccessModes.CONTROL, AccessModes.of(ACL.Control));
+        assertEquals(AccessModes.NONE, AccessModes.of(DC.title));
+        assertEquals(AccessModes.READ | AccessModes.CONTROL, AccessModes.of(asList(ACL.Read, ACL.Control, DC.title)));
+    }
+
+    @Test
+    public void testToModes() {
+        assertEquals(asList(ACL.Read, ACL.Write, ACL.Append, ACL.Control),
+                asList(AccessModes.toModes(AccessModes.ALL).toArray()));
+        assertEquals(asList(ACL.Write), asList(AccessModes.toModes(AccessModes.WRITE).toArray()));
+        assertTrue(AccessModes.toModes(AccessModes.NONE).isEmpty());
+    }
+}
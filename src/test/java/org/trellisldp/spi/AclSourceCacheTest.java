@@ -0,0 +1,137 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Optional.of;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/**
+ * @author acoburn
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class AclSourceCacheTest {
+
+    private static final RDF rdf = new SimpleRDF();
+
+    private final IRI root = rdf.createIRI("trellis:repository");
+    private final IRI parent = rdf.createIRI("trellis:repository/a");
+    private final IRI child = rdf.createIRI("trellis:repository/a/b");
+    private final IRI grandchild = rdf.createIRI("trellis:repository/a/b/c");
+    private final IRI sibling = rdf.createIRI("trellis:repository/a0");
+    private final Set<IRI> acls = new HashSet<>();
+    private final AtomicInteger checks = new AtomicInteger();
+
+    @Mock
+    private ResourceService mockResourceService;
+
+    @Before
+    public void setUp() {
+        doCallRealMethod().when(mockResourceService).getContainer(any());
+        acls.add(root);
+    }
+
+    @Test
+    public void testResolve() {
+        final AclSourceCache cache = new AclSourceCache(mockResourceService, this::hasAcl, 100L);
+        assertEquals(of(root), cache.getAclSource(grandchild));
+        assertEquals(4, checks.get());
+        assertEquals(4L, cache.size());
+
+        assertEquals(of(root), cache.getAclSource(child));
+        assertEquals(of(root), cache.getAclSource(rdf.createIRI("trellis:repository/a/b/d")));
+        assertEquals(5, checks.get());
+    }
+
+    @Test
+    public void testNoAcl() {
+        acls.clear();
+        final AclSourceCache cache = new AclSourceCache(mockResourceService, this::hasAcl, 100L);
+        assertFalse(cache.getAclSource(child).isPresent());
+        assertFalse(cache.getAclSource(parent).isPresent());
+        assertEquals(3, checks.get());
+    }
+
+    @Test
+    public void testInvalidateSubtree() {
+        final AclSourceCache cache = new AclSourceCache(mockResourceService, this::hasAcl, 100L);
+        cache.getAclSource(grandchild);
+        cache.getAclSource(sibling);
+        assertEquals(5L, cache.size());
+
+        acls.add(parent);
+        cache.invalidate(parent);
+        assertEquals(2L, cache.size());
+        assertEquals(of(parent), cache.getAclSource(grandchild));
+        assertEquals(of(root), cache.getAclSource(sibling));
+
+        acls.remove(parent);
+        cache.invalidate(parent);
+        assertEquals(of(root), cache.getAclSource(child));
+
+        cache.invalidateAll();
+        assertEquals(0L, cache.size());
+    }
+
+    @Test
+    public void testBounded() {
+        final AclSourceCache cache = new AclSourceCache(mockResourceService, this::hasAcl, 2L);
+        assertEquals(of(root), cache.getAclSource(grandchild));
+        assertEquals(2L, cache.size());
+    }
+
+    @Test
+    public void testEviction() {
+        final AclSourceCache cache = new AclSourceCache(mockResourceService, this::hasAcl, 3L);
+        cache.getAclSource(parent);
+        cache.getAclSource(sibling);
+        cache.getAclSource(sibling);
+        assertEquals(3L, cache.size());
+        assertEquals(3, checks.get());
+
+        // The entry that has not been used is evicted, even though it does not sort last
+        assertEquals(of(root), cache.getAclSource(rdf.createIRI("trellis:repository/z")));
+        assertEquals(3L, cache.size());
+        assertEquals(4, checks.get());
+        cache.getAclSource(sibling);
+        assertEquals(4, checks.get());
+        cache.getAclSource(parent);
+        assertEquals(5, checks.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeSize() {
+        new AclSourceCache(mockResourceService, this::hasAcl, -1L);
+    }
+
+    private boolean hasAcl(final IRI identifier) {
+        checks.incrementAndGet();
+        return acls.contains(identifier);
+    }
+}
@@ -13,24 +13,36 @@
  */
 package org.trellisldp.spi;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singleton;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.when;
 import static org.trellisldp.spi.ActivityStreamSerializer.serialize;
 import static org.trellisldp.vocabulary.AS.Create;
 import static org.trellisldp.vocabulary.LDP.Container;
 import static org.trellisldp.vocabulary.PROV.Activity;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
 import org.trellisldp.vocabulary.AS;
 import org.apache.commons.rdf.api.RDF;
 import org.apache.commons.rdf.simple.SimpleRDF;
@@ -136,4 +148,162 @@ public class ActivityStreamSerializerTest {
 
         assertTrue(map.get("id").equals("info:event/12345"));
     }
+
+    @Test
+    public void testSerializationOrder() {
+        assertEquals(of("{\"id\":\"info:event/12345\",\"type\":[\"Create\"],\"inbox\":\"info:ldn/inbox\","
+                    + "\"actor\":[\"info:user/test\"],\"object\":{\"id\":\"trellis:repository/resource\","
+                    + "\"type\":[\"http://www.w3.org/ns/ldp#Container\"]},"
+                    + "\"@context\":\"https://www.w3.org/ns/activitystreams\"}"), serialize(mockEvent));
+    }
+
+    @Test
+    public void testSerializeToStream() {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        EventService.serialize(mockEvent, output);
+        assertEquals(serialize(mockEvent).get(), new String(output.toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void testSerializeToBuffer() {
+        final ByteBuffer buffer = ByteBuffer.allocate(1024);
+        buffer.put((byte) 'x');
+        final int length = EventService.serialize(mockEvent, buffer);
+        assertEquals(length + 1, buffer.position());
+        assertEquals(serialize(mockEvent).get(), new String(buffer.array(), 1, length, UTF_8));
+    }
+
+    @Test
+    public void testSerializeToSmallBuffer() {
+        final ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.put((byte) 'x');
+        try {
+            EventService.serialize(mockEvent, buffer);
+            fail("Serialization should have overflowed the buffer");
+        } catch (final BufferOverflowException ex) {
+            assertEquals(1, buffer.position());
+        }
+    }
+
+    @Test
+    public void testSerializeJsonArray() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        EventService.serializeAll(asList(mockEvent, mockEvent), output, EventService.BatchFormat.JSON_ARRAY);
+
+        final List<?> events = new ObjectMapper().readValue(output.toByteArray(), List.class);
+        assertEquals(2, events.size());
+        assertEquals(new ObjectMapper().readValue(serialize(mockEvent).get(), Map.class), events.get(0));
+    }
+
+    @Test
+    public void testSerializeNdjson() {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        EventService.serializeAll(asList(mockEvent, mockEvent), output, EventService.BatchFormat.NDJSON);
+
+        final String json = serialize(mockEvent).get();
+        assertEquals(json + "\n" + json + "\n", new String(output.toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void testSerializeBinary() {
+        final Instant created = Instant.now();
+        when(mockEvent.getCreated()).thenReturn(created);
+
+        final byte[] data = EventService.serializeBinary(mockEvent);
+        assertEquals((byte) 0xD9, data[0]);
+        assertEquals((byte) 0xD9, data[1]);
+        assertEquals((byte) 0xF7, data[2]);
+
+        final Optional<Event> event = EventService.deserializeBinary(data);
+        assertTrue(event.isPresent());
+        assertEquals(mockEvent.getIdentifier(), event.get().getIdentifier());
+        assertEquals(asList(rdf.createIRI("info:user/test")), event.get().getAgents());
+        assertEquals(mockEvent.getTarget(), event.get().getTarget());
+        assertEquals(asList(Create), event.get().getTypes());
+        assertEquals(asList(Container), event.get().getTargetTypes());
+        assertEquals(created, event.get().getCreated());
+        assertEquals(mockEvent.getInbox(), event.get().getInbox());
+    }
+
+    @Test
+    public void testSerializeBinaryStream() {
+        when(mockEvent.getCreated()).thenReturn(Instant.now());
+        when(mockEvent.getAgents()).thenReturn(emptyList());
+        when(mockEvent.getTarget()).thenReturn(empty());
+        when(mockEvent.getTypes()).thenReturn(asList(Create, Activity));
+        when(mockEvent.getInbox()).thenReturn(empty());
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        EventService.serializeBinary(mockEvent, output);
+        final Event event = EventService.deserializeBinary(output.toByteArray()).get();
+        assertTrue(event.getAgents().isEmpty());
+        assertFalse(event.getTarget().isPresent());
+        assertFalse(event.getInbox().isPresent());
+        assertEquals(asList(Create, Activity), event.getTypes());
+    }
+
+    @Test
+    public void testDeserializeInvalid() {
+        assertFalse(EventService.deserializeBinary(serialize(mockEvent).get().getBytes(UTF_8)).isPresent());
+        assertFalse(EventService.deserializeBinary(new byte[] {(byte) 0xD9, (byte) 0xD9, (byte) 0xF7, 1, 2})
+                .isPresent());
+        assertFalse(EventService.deserializeBinary(new byte[0]).isPresent());
+    }
+
+    @Test
+    public void testDeserializeTruncated() {
+        when(mockEvent.getCreated()).thenReturn(Instant.now());
+        final byte[] data = EventService.serializeBinary(mockEvent);
+        for (int length = 0; length < data.length; ++length) {
+            final byte[] truncated = new byte[length];
+            System.arraycopy(data, 0, truncated, 0, length);
+            assertFalse("Decoded " + length + " of " + data.length + " bytes",
+                    EventService.deserializeBinary(truncated).isPresent());
+        }
+    }
+
+    @Test
+    public void testDeserializeInvalidValues() throws IOException {
+        assertTrue(EventService.deserializeBinary(binary("actor", "info:user/test")).isPresent());
+        assertFalse(EventService.deserializeBinary(binary("actor", 5)).isPresent());
+        assertFalse(EventService.deserializeBinary(binary("actor", (Object) null)).isPresent());
+        assertFalse(EventService.deserializeBinary(binary("actor", "not an IRI")).isPresent());
+        assertFalse(EventService.deserializeBinary(binary("id", "not an IRI")).isPresent());
+        assertFalse(EventService.deserializeBinary(binary("id", 5)).isPresent());
+        assertFalse(EventService.deserializeBinary(binary("published", "yesterday")).isPresent());
+    }
+
+    @Test
+    public void testDeserializeFuzz() {
+        when(mockEvent.getCreated()).thenReturn(Instant.now());
+        final byte[] data = EventService.serializeBinary(mockEvent);
+        final Random random = new Random(12345L);
+        for (int i = 0; i < 10000; ++i) {
+            final byte[] corrupt = data.clone();
+            final int changes = 1 + random.nextInt(4);
+            for (int j = 0; j < changes; ++j) {
+                // Keep the format header, so that the corrupted data is decoded
+                corrupt[3 + random.nextInt(corrupt.length - 3)] = (byte) random.nextInt();
+            }
+            // Any result is acceptable, so long as decoding neither fails nor hangs
+            EventService.deserializeBinary(corrupt);
+        }
+    }
+
+    private static byte[] binary(final String field, final Object value) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (final JsonGenerator generator = new CBORFactory().enable(CBORGenerator.Feature.WRITE_TYPE_HEADER)
+                .createGenerator(output)) {
+            generator.writeStartObject();
+            generator.writeObjectField("id", "id".equals(field) ? value : "info:event/12345");
+            generator.writeObjectField("published", "published".equals(field) ? value : Instant.now().toString());
+            if ("actor".equals(field)) {
+                generator.writeArrayFieldStart(field);
+                generator.writeObject(value);
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+        }
+        return output.toByteArray();
+    }
 }
@@ -0,0 +1,192 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/**
+ * @author acoburn
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class AsyncEventServiceTest {
+
+    @Mock
+    private Event mockEvent1, mockEvent2, mockEvent3;
+
+    private final List<Event> delivered = new ArrayList<>();
+    private final List<Integer> batches = new ArrayList<>();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final EventService recording = new EventService() {
+        @Override
+        public void emit(final Event event) {
+            emitAll(asList(event));
+        }
+
+        @Override
+        public void emitAll(final Collection<? extends Event> events) {
+            started.countDown();
+            try {
+                release.await(5L, SECONDS);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (delivered) {
+                delivered.addAll(events);
+                batches.add(events.size());
+            }
+        }
+    };
+
+    @Test
+    public void testBatching() throws Exception {
+        final AsyncEventService service = new AsyncEventService(recording, 10, 2,
+                AsyncEventService.OverflowPolicy.BLOCK);
+        service.emit(mockEvent1);
+        assertTrue(started.await(5L, SECONDS));
+        service.emit(mockEvent2);
+        service.emit(mockEvent3);
+        assertEquals(2, service.getQueueDepth());
+        release.countDown();
+        service.close();
+
+        assertEquals(asList(mockEvent1, mockEvent2, mockEvent3), delivered);
+        assertEquals(asList(1, 2), batches);
+        assertEquals(3L, service.getEmittedCount());
+        assertEquals(0, service.getQueueDepth());
+        assertTrue(service.getMaxLatency().compareTo(service.getAverageLatency()) >= 0);
+    }
+
+    @Test
+    public void testDropOldest() throws Exception {
+        final AsyncEventService service = new AsyncEventService(recording, 1, 10,
+                AsyncEventService.OverflowPolicy.DROP_OLDEST);
+        service.emit(mockEvent1);
+        assertTrue(started.await(5L, SECONDS));
+        service.emit(mockEvent2);
+        service.emit(mockEvent3);
+        release.countDown();
+        service.close();
+
+        assertEquals(asList(mockEvent1, mockEvent3), delivered);
+        assertEquals(1L, service.getDroppedCount());
+    }
+
+    @Test
+    public void testSpill() throws Exception {
+        final List<Event> spilled = new ArrayList<>();
+        final AsyncEventService service = new AsyncEventService(recording, 1, 10,
+                AsyncEventService.OverflowPolicy.SPILL, spilled::add);
+        service.emit(mockEvent1);
+        assertTrue(started.await(5L, SECONDS));
+        service.emit(mockEvent2);
+        service.emit(mockEvent3);
+        release.countDown();
+        service.close();
+
+        assertEquals(asList(mockEvent1, mockEvent2), delivered);
+        assertEquals(asList(mockEvent3), spilled);
+        assertEquals(1L, service.getSpilledCount());
+    }
+
+    @Test
+    public void testFailure() {
+        final AsyncEventService service = new AsyncEventService(event -> {
+                throw new RuntimeRepositoryException("Expected");
+            }, 10, 10, AsyncEventService.OverflowPolicy.BLOCK);
+        service.emit(mockEvent1);
+        service.emit(mockEvent2);
+        service.close();
+
+        assertEquals(2L, service.getFailedCount());
+        assertEquals(0L, service.getEmittedCount());
+    }
+
+    @Test
+    public void testFailureSpilled() {
+        final List<Event> spilled = new ArrayList<>();
+        final AsyncEventService service = new AsyncEventService(event -> {
+                throw new RuntimeRepositoryException("Expected");
+            }, 10, 10, AsyncEventService.OverflowPolicy.BLOCK, spilled::add);
+        service.emit(mockEvent1);
+        service.emit(mockEvent2);
+        service.close();
+
+        assertEquals(asList(mockEvent1, mockEvent2), spilled);
+        assertEquals(2L, service.getSpilledCount());
+        assertEquals(0L, service.getFailedCount());
+    }
+
+    @Test
+    public void testBlockedEmitAfterClose() throws Exception {
+        final AsyncEventService service = new AsyncEventService(recording, 1, 10,
+                AsyncEventService.OverflowPolicy.BLOCK);
+        service.emit(mockEvent1);
+        assertTrue(started.await(5L, SECONDS));
+        service.emit(mockEvent2);
+
+        final AtomicReference<Exception> error = new AtomicReference<>();
+        final Thread producer = new Thread(() -> {
+            try {
+                service.emit(mockEvent3);
+            } catch (final IllegalStateException ex) {
+                error.set(ex);
+            }
+        });
+        producer.start();
+        while (producer.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(10L);
+        }
+        final Thread closer = new Thread(service::close);
+        closer.start();
+        producer.join(5000L);
+        assertFalse(producer.isAlive());
+        release.countDown();
+        closer.join(5000L);
+
+        // The blocked event is rejected, rather than queued after the service has closed
+        assertTrue(error.get() instanceof IllegalStateException);
+        assertEquals(asList(mockEvent1, mockEvent2), delivered);
+        assertEquals(0, service.getQueueDepth());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEmitAfterClose() {
+        final AsyncEventService service = new AsyncEventService(recording, 10, 10,
+                AsyncEventService.OverflowPolicy.BLOCK);
+        service.close();
+        service.emit(mockEvent1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSpillWithoutOverflow() {
+        new AsyncEventService(recording, 10, 10, AsyncEventService.OverflowPolicy.SPILL);
+    }
+}
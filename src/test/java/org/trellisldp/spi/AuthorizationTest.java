@@ -13,11 +13,22 @@
  */
 package org.trellisldp.spi;
 
+import static java.util.Arrays.asList;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.trellisldp.vocabulary.RDF.type;
+
+import java.util.Map;
+
 
 import org.trellisldp.vocabulary.ACL;
 import org.trellisldp.vocabulary.PROV;
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.BlankNodeOrIRI;
 import org.apache.commons.rdf.api.Graph;
 import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.RDF;
@@ -97,4 +108,57 @@ public class AuthorizationTest {
         assertEquals(1, auth.getDefault().size());
         assertTrue(auth.getDefault().contains(rdf.createIRI("trellis:repository/container")));
     }
+
+    @Test
+    public void testAccessModes() {
+        final IRI mode = rdf.createIRI("info:mode/Custom");
+        graph.add(rdf.createTriple(subject, ACL.mode, ACL.Control));
+        graph.add(rdf.createTriple(subject, ACL.mode, mode));
+        final Authorization auth = Authorization.from(subject, graph);
+
+        assertEquals(AccessModes.READ | AccessModes.CONTROL, auth.getAccessModes());
+        assertEquals(3, auth.getMode().size());
+        assertTrue(auth.getMode().containsAll(asList(ACL.Read, ACL.Control, mode)));
+    }
+
+    @Test
+    public void testEmpty() {
+        final Authorization auth = Authorization.from(rdf.createBlankNode(), graph);
+        assertTrue(auth.getAgent().isEmpty());
+        assertTrue(auth.getMode().isEmpty());
+        assertEquals(AccessModes.NONE, auth.getAccessModes());
+        assertSame(auth.getAgent(), auth.getDefault());
+    }
+
+    @Test
+    public void testAllFrom() {
+        final IRI other = rdf.createIRI("trellis:repository/other");
+        final BlankNode bnode = rdf.createBlankNode();
+        graph.add(rdf.createTriple(subject, type, ACL.Authorization));
+        graph.add(rdf.createTriple(bnode, type, ACL.Authorization));
+        graph.add(rdf.createTriple(bnode, ACL.agent, rdf.createIRI("info:agent/foo")));
+        graph.add(rdf.createTriple(bnode, ACL.mode, ACL.Read));
+        graph.add(rdf.createTriple(bnode, ACL.accessTo, rdf.createIRI("trellis:repository/resource2")));
+
+        final Map<BlankNodeOrIRI, Authorization> auths = Authorization.allFrom(graph).stream()
+            .collect(toMap(Authorization::getIdentifier, identity()));
+        assertEquals(2, auths.size());
+        assertFalse(auths.containsKey(other));
+
+        final Authorization expected = Authorization.from(subject, graph);
+        final Authorization auth = auths.get(subject);
+        assertEquals(expected.getAgent(), auth.getAgent());
+        assertEquals(expected.getAgentClass(), auth.getAgentClass());
+        assertEquals(expected.getAgentGroup(), auth.getAgentGroup());
+        assertEquals(expected.getMode(), auth.getMode());
+        assertEquals(expected.getAccessTo(), auth.getAccessTo());
+        assertEquals(expected.getDefault(), auth.getDefault());
+
+        final Authorization blank = auths.get(bnode);
+        assertEquals(1, blank.getAgent().size());
+        assertEquals(AccessModes.READ, blank.getAccessModes());
+        assertSame(auth.getMode(), blank.getMode());
+        final IRI agent = blank.getAgent().iterator().next();
+        assertSame(agent, auth.getAgent().stream().filter(agent::equals).findFirst().get());
+    }
 }
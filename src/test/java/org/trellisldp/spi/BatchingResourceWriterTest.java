@@ -0,0 +1,174 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofMinutes;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.commons.rdf.api.Dataset;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/**
+ * @author acoburn
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class BatchingResourceWriterTest {
+
+    private static final RDF rdf = new SimpleRDF();
+
+    private final IRI resource1 = rdf.createIRI("trellis:repository/resource1");
+    private final IRI resource2 = rdf.createIRI("trellis:repository/resource2");
+    private final Dataset dataset1 = rdf.createDataset();
+    private final Dataset dataset2 = rdf.createDataset();
+
+    @Mock
+    private ResourceService mockResourceService;
+
+    @Test
+    public void testBatchSize() throws Exception {
+        when(mockResourceService.putAll(any())).thenAnswer(inv -> {
+            final Map<IRI, Dataset> datasets = inv.getArgument(0);
+            final Map<IRI, Boolean> results = new LinkedHashMap<>();
+            datasets.keySet().forEach(id -> results.put(id, true));
+            return results;
+        });
+        try (final BatchingResourceWriter writer = new BatchingResourceWriter(mockResourceService, 2,
+                    ofMinutes(5L))) {
+            final CompletableFuture<Boolean> first = writer.put(resource1, dataset1).toCompletableFuture();
+            final CompletableFuture<Boolean> second = writer.put(resource2, dataset2).toCompletableFuture();
+            assertTrue(first.get(5L, SECONDS));
+            assertTrue(second.get(5L, SECONDS));
+        }
+        final Map<IRI, Dataset> expected = new LinkedHashMap<>();
+        expected.put(resource1, dataset1);
+        expected.put(resource2, dataset2);
+        verify(mockResourceService, times(1)).putAll(eq(expected));
+    }
+
+    @Test
+    public void testLinger() throws Exception {
+        when(mockResourceService.putAll(any())).thenAnswer(inv -> {
+            final Map<IRI, Boolean> results = new LinkedHashMap<>();
+            results.put(resource1, true);
+            return results;
+        });
+        try (final BatchingResourceWriter writer = new BatchingResourceWriter(mockResourceService, 100,
+                    ofMillis(10L))) {
+            assertTrue(writer.put(resource1, dataset1).toCompletableFuture().get(5L, SECONDS));
+        }
+    }
+
+    @Test
+    public void testRepeatedIdentifier() throws Exception {
+        final Map<IRI, Boolean> results = new LinkedHashMap<>();
+        results.put(resource1, true);
+        results.put(resource2, true);
+        when(mockResourceService.putAll(any())).thenReturn(results);
+        try (final BatchingResourceWriter writer = new BatchingResourceWriter(mockResourceService, 100,
+                    ofMinutes(5L))) {
+            final CompletableFuture<Boolean> first = writer.put(resource1, dataset1).toCompletableFuture();
+            final CompletableFuture<Boolean> second = writer.put(resource2, dataset2).toCompletableFuture();
+            final CompletableFuture<Boolean> third = writer.put(resource1, dataset2).toCompletableFuture();
+            writer.flush().toCompletableFuture().get(5L, SECONDS);
+            assertTrue(first.get());
+            assertTrue(second.get());
+            assertTrue(third.get());
+        }
+        final Map<IRI, Dataset> expected1 = new LinkedHashMap<>();
+        expected1.put(resource1, dataset1);
+        expected1.put(resource2, dataset2);
+        final Map<IRI, Dataset> expected2 = new LinkedHashMap<>();
+        expected2.put(resource1, dataset2);
+        final InOrder inOrder = inOrder(mockResourceService);
+        inOrder.verify(mockResourceService).putAll(eq(expected1));
+        inOrder.verify(mockResourceService).putAll(eq(expected2));
+        verify(mockResourceService, times(2)).putAll(any());
+    }
+
+    @Test
+    public void testMissingResult() throws Exception {
+        when(mockResourceService.putAll(any())).thenReturn(new LinkedHashMap<>());
+        final BatchingResourceWriter writer = new BatchingResourceWriter(mockResourceService, 100, ofMinutes(5L));
+        final CompletableFuture<Boolean> future = writer.put(resource1, dataset1).toCompletableFuture();
+        writer.close();
+        assertFalse(future.get(5L, SECONDS));
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        when(mockResourceService.putAll(any())).thenThrow(new RuntimeRepositoryException("Expected"));
+        final BatchingResourceWriter writer = new BatchingResourceWriter(mockResourceService, 1, ofMinutes(5L));
+        final CompletableFuture<Boolean> future = writer.put(resource1, dataset1).toCompletableFuture();
+        writer.close();
+        try {
+            future.get(5L, SECONDS);
+        } catch (final ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof RuntimeRepositoryException);
+            return;
+        }
+        assertTrue("Expected an exception", false);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClosed() {
+        final BatchingResourceWriter writer = new BatchingResourceWriter(mockResourceService, 1, ofMinutes(5L));
+        writer.close();
+        writer.put(resource1, dataset1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFlushClosed() {
+        final BatchingResourceWriter writer = new BatchingResourceWriter(mockResourceService, 1, ofMinutes(5L));
+        writer.close();
+        writer.flush();
+    }
+
+    @Test
+    public void testDefaultPutAll() {
+        doCallRealMethod().when(mockResourceService).putAll(any());
+        when(mockResourceService.put(eq(resource1), eq(dataset1))).thenReturn(true);
+        when(mockResourceService.put(eq(resource2), eq(dataset2))).thenReturn(false);
+        final Map<IRI, Dataset> datasets = new LinkedHashMap<>();
+        datasets.put(resource1, dataset1);
+        datasets.put(resource2, dataset2);
+        final Map<IRI, Boolean> results = mockResourceService.putAll(datasets);
+        assertEquals(2, results.size());
+        assertTrue(results.get(resource1));
+        assertFalse(results.get(resource2));
+    }
+}
@@ -13,21 +13,40 @@
  */
 package org.trellisldp.spi;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Base64.getEncoder;
 import static java.util.Collections.emptyMap;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
+import static java.util.Optional.empty;
 import static java.util.Optional.of;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.RDF;
@@ -112,4 +131,188 @@ public class BinaryServiceTest {
         assertEquals(mockSession, upload.getSession());
         assertEquals(mockBinary, upload.getBinary());
     }
+
+    @Test
+    public void testRangedContent() throws Exception {
+        final byte[] data = "Some binary content".getBytes(UTF_8);
+        when(mockResolver.getContent(partition, other)).thenAnswer(inv -> of(new ByteArrayInputStream(data)));
+        doCallRealMethod().when(mockBinaryService).getContent(eq(partition), any(), anyLong(), anyLong());
+        doCallRealMethod().when(mockResolver).getContent(eq(partition), any(), anyLong(), anyLong());
+
+        assertEquals("binary", read(mockBinaryService.getContent(partition, other, 5L, 10L).get()));
+        assertEquals("content", read(mockBinaryService.getContent(partition, other, 12L, 100L).get()));
+        assertEquals("", read(mockBinaryService.getContent(partition, other, 100L, 200L).get()));
+        assertEquals("S", read(mockBinaryService.getContent(partition, other, 0L, 0L).get()));
+
+        final InputStream stream = mockBinaryService.getContent(partition, other, 5L, Long.MAX_VALUE).get();
+        assertEquals(2L, stream.skip(2L));
+        assertEquals('n', stream.read());
+        assertEquals("ary content", read(stream));
+        assertEquals(-1, stream.read());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRange() {
+        doCallRealMethod().when(mockBinaryService).getContent(eq(partition), any(), anyLong(), anyLong());
+        doCallRealMethod().when(mockResolver).getContent(eq(partition), any(), anyLong(), anyLong());
+        mockBinaryService.getContent(partition, other, 10L, 5L);
+    }
+
+    @Test
+    public void testChannel() throws Exception {
+        final byte[] data = "Some binary content".getBytes(UTF_8);
+        when(mockResolver.getContent(partition, other)).thenReturn(of(new ByteArrayInputStream(data)));
+        doCallRealMethod().when(mockBinaryService).getChannel(eq(partition), any());
+        doCallRealMethod().when(mockResolver).getChannel(eq(partition), any());
+
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        try (final ReadableByteChannel channel = mockBinaryService.getChannel(partition, other).get()) {
+            while (channel.read(buffer) >= 0) {
+                // read the entire channel
+            }
+        }
+        assertEquals(data.length, buffer.position());
+    }
+
+    @Test
+    public void testDigestWhileWriting() throws Exception {
+        final byte[] data = "Some binary content".getBytes(UTF_8);
+        final Map<String, String> metadata = singletonMap("Content-Type", "text/plain");
+        when(mockBinaryService.supportedAlgorithms()).thenReturn(new HashSet<>(asList("MD5", "sha-256", "unixsum")));
+        final Map<String, String> computed = storeComputed(Integer.MAX_VALUE);
+
+        mockBinaryService.setContent(partition, identifier, new ByteArrayInputStream(data), metadata);
+
+        final Map<String, String> expected = new HashMap<>();
+        expected.put("digest:md5", getEncoder().encodeToString(MessageDigest.getInstance("MD5").digest(data)));
+        expected.put("digest:sha-256", getEncoder().encodeToString(MessageDigest.getInstance("SHA-256")
+                    .digest(data)));
+        assertEquals(expected, computed);
+        verify(mockResolver).setContent(eq(partition), eq(identifier), any(), eq(metadata), any());
+        verify(mockResolver, never()).setMetadata(any(), any(), any());
+    }
+
+    @Test
+    public void testReservedMetadata() throws Exception {
+        final byte[] data = "Some binary content".getBytes(UTF_8);
+        final Map<String, String> metadata = new HashMap<>();
+        metadata.put("Content-Type", "text/plain");
+        metadata.put("digest:md5", "forged");
+        metadata.put("digest:unixsum", "forged");
+        when(mockBinaryService.supportedAlgorithms()).thenReturn(singleton("md5"));
+        final Map<String, String> computed = storeComputed(Integer.MAX_VALUE);
+
+        mockBinaryService.setContent(partition, identifier, new ByteArrayInputStream(data), metadata);
+
+        assertEquals(singletonMap("digest:md5", getEncoder().encodeToString(MessageDigest.getInstance("MD5")
+                        .digest(data))), computed);
+        verify(mockResolver).setContent(eq(partition), eq(identifier), any(),
+                eq(singletonMap("Content-Type", "text/plain")), any());
+    }
+
+    @Test
+    public void testPartialWrite() {
+        when(mockBinaryService.supportedAlgorithms()).thenReturn(singleton("md5"));
+        final Map<String, String> computed = storeComputed(1);
+
+        mockBinaryService.setContent(partition, identifier, new ByteArrayInputStream(new byte[10]));
+        assertTrue(computed.isEmpty());
+    }
+
+    @Test
+    public void testNoMetadataSupport() {
+        when(mockResolver.supportsMetadata()).thenReturn(false);
+
+        mockBinaryService.setContent(partition, identifier, mockInputStream, singletonMap("digest:md5", "forged"));
+        verify(mockResolver).setContent(eq(partition), eq(identifier), eq(mockInputStream), eq(emptyMap()));
+        verify(mockBinaryService, never()).supportedAlgorithms();
+    }
+
+    @Test
+    public void testStoredDigest() {
+        when(mockResolver.getMetadata(partition, identifier)).thenReturn(singletonMap("digest:sha-256", "stored"));
+        assertEquals(of("stored"), mockBinaryService.calculateDigest(partition, identifier, "SHA-256"));
+        verify(mockBinaryService, never()).getContent(partition, identifier);
+        verify(mockBinaryService, never()).digest(any(), any());
+    }
+
+    @Test
+    public void testCalculateDigests() throws Exception {
+        final byte[] data = "Some binary content".getBytes(UTF_8);
+        doCallRealMethod().when(mockBinaryService).calculateDigests(eq(partition), any(), any());
+        when(mockResolver.getMetadata(partition, identifier)).thenReturn(singletonMap("digest:sha-256", "stored"));
+        when(mockResolver.getContent(partition, identifier)).thenAnswer(inv -> of(new ByteArrayInputStream(data)));
+        when(mockBinaryService.supportedAlgorithms()).thenReturn(new HashSet<>(asList("md5", "SHA", "sha-256",
+                        "unixsum")));
+
+        final Map<String, String> digests = mockBinaryService.calculateDigests(partition, identifier,
+                new HashSet<>(asList("MD5", "sha", "sha-256", "sha-512", "unixsum")));
+        assertEquals(4, digests.size());
+        assertEquals(getEncoder().encodeToString(MessageDigest.getInstance("MD5").digest(data)), digests.get("MD5"));
+        assertEquals(getEncoder().encodeToString(MessageDigest.getInstance("SHA-1").digest(data)),
+                digests.get("sha"));
+        assertEquals("stored", digests.get("sha-256"));
+        assertEquals(checksum, digests.get("unixsum"));
+        // One read for md5 and sha together, and one for unixsum
+        verify(mockResolver, times(2)).getContent(partition, identifier);
+        verify(mockBinaryService).digest(eq("unixsum"), any());
+    }
+
+    @Test
+    public void testCalculateDigestsReadError() throws Exception {
+        doCallRealMethod().when(mockBinaryService).calculateDigests(eq(partition), any(), any());
+        when(mockBinaryService.supportedAlgorithms()).thenReturn(singleton("md5"));
+        when(mockInputStream.read(any(), anyInt(), anyInt())).thenThrow(new IOException("Expected"));
+        assertTrue(mockBinaryService.calculateDigests(partition, identifier, singleton("md5")).isEmpty());
+    }
+
+    @Test
+    public void testCalculateDigestsMissing() {
+        doCallRealMethod().when(mockBinaryService).calculateDigests(eq(partition), any(), any());
+        when(mockBinaryService.supportedAlgorithms()).thenReturn(singleton("md5"));
+        when(mockResolver.getContent(partition, other)).thenReturn(empty());
+        assertTrue(mockBinaryService.calculateDigests(partition, other, singleton("md5")).isEmpty());
+    }
+
+    @Test
+    public void testResolverDefaultContent() {
+        mockResolver.setContent(partition, identifier, mockInputStream);
+        verify(mockResolver).setContent(eq(partition), eq(identifier), eq(mockInputStream), eq(emptyMap()));
+    }
+
+    @Test
+    public void testDefaultMetadata() {
+        doCallRealMethod().when(mockResolver).getMetadata(any(), any());
+        doCallRealMethod().when(mockResolver).setMetadata(any(), any(), any());
+        mockResolver.setMetadata(partition, identifier, singletonMap("key", "value"));
+        assertTrue(mockResolver.getMetadata(partition, identifier).isEmpty());
+    }
+
+    /**
+     * Make the resolver read up to a number of bytes and record the metadata computed from them
+     */
+    private Map<String, String> storeComputed(final int bytes) {
+        final Map<String, String> computed = new HashMap<>();
+        when(mockResolver.supportsMetadata()).thenReturn(true);
+        doAnswer(inv -> {
+            final InputStream stream = inv.getArgument(2);
+            for (int i = 0; i < bytes && stream.read() >= 0; ++i) {
+                // read the content
+            }
+            final Supplier<Map<String, String>> supplier = inv.getArgument(4);
+            computed.putAll(supplier.get());
+            return null;
+        }).when(mockResolver).setContent(eq(partition), eq(identifier), any(), any(), any());
+        return computed;
+    }
+
+    private static String read(final InputStream stream) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4];
+        int count;
+        while ((count = stream.read(buffer)) >= 0) {
+            output.write(buffer, 0, count);
+        }
+        return new String(output.toByteArray(), UTF_8);
+    }
 }
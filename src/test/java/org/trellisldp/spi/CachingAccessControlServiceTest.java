@@ -0,0 +1,209 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.trellisldp.vocabulary.ACL;
+import org.trellisldp.vocabulary.FOAF;
+import org.trellisldp.vocabulary.Trellis;
+
+/**
+ * @author acoburn
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CachingAccessControlServiceTest {
+
+    private static final RDF rdf = new SimpleRDF();
+
+    private final IRI resource = rdf.createIRI("trellis:repository/resource");
+    private final IRI agent = rdf.createIRI("info:agent/foo");
+    private final IRI member = rdf.createIRI("info:agent/bar");
+    private final IRI group = rdf.createIRI("info:group/editors");
+    private final Map<IRI, List<Authorization>> acls = new HashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Mock
+    private Session mockSession;
+
+    @Before
+    public void setUp() {
+        acls.put(resource, asList(
+                    authorization(ACL.agent, agent, ACL.Read, ACL.Write, ACL.Control),
+                    authorization(ACL.agentClass, FOAF.Agent, ACL.Read),
+                    authorization(ACL.agentGroup, group, ACL.Append)));
+    }
+
+    @Test
+    public void testAgentModes() {
+        when(mockSession.getAgent()).thenReturn(agent);
+        when(mockSession.getDelegatedBy()).thenReturn(empty());
+
+        final CachingAccessControlService service = newService();
+        assertEquals(AccessModes.READ | AccessModes.WRITE | AccessModes.CONTROL,
+                service.getAccessModes(mockSession, resource));
+        assertTrue(service.canRead(mockSession, resource));
+        assertTrue(service.canWrite(mockSession, resource));
+        assertTrue(service.canControl(mockSession, resource));
+        assertFalse(service.canAppend(mockSession, resource));
+        assertTrue(service.anyMatch(mockSession, resource, ACL.Control::equals));
+        assertFalse(service.anyMatch(mockSession, resource, ACL.Append::equals));
+        assertEquals(1, loads.get());
+        assertEquals(1L, service.size());
+    }
+
+    @Test
+    public void testGroupModes() {
+        when(mockSession.getAgent()).thenReturn(member);
+        when(mockSession.getDelegatedBy()).thenReturn(empty());
+
+        final CachingAccessControlService service = newService();
+        assertEquals(AccessModes.READ | AccessModes.APPEND, service.getAccessModes(mockSession, resource));
+    }
+
+    @Test
+    public void testPublicModes() {
+        when(mockSession.getAgent()).thenReturn(rdf.createIRI("info:agent/other"));
+        when(mockSession.getDelegatedBy()).thenReturn(empty());
+
+        final CachingAccessControlService service = new CachingAccessControlService(this::load, 10L);
+        assertEquals(AccessModes.READ, service.getAccessModes(mockSession, resource));
+        assertEquals(AccessModes.NONE, service.getAccessModes(mockSession, rdf.createIRI("trellis:repository")));
+    }
+
+    @Test
+    public void testAuthenticatedModes() {
+        acls.put(resource, asList(authorization(ACL.agentClass, AuthorizationIndex.AUTHENTICATED_AGENT, ACL.Write)));
+        when(mockSession.getDelegatedBy()).thenReturn(empty());
+
+        final CachingAccessControlService service = new CachingAccessControlService(this::load, 10L);
+        when(mockSession.getAgent()).thenReturn(agent);
+        assertEquals(AccessModes.WRITE, service.getAccessModes(mockSession, resource));
+        when(mockSession.getAgent()).thenReturn(Trellis.AnonymousUser);
+        assertEquals(AccessModes.NONE, service.getAccessModes(mockSession, resource));
+    }
+
+    @Test
+    public void testDelegatedModes() {
+        when(mockSession.getAgent()).thenReturn(agent);
+        when(mockSession.getDelegatedBy()).thenReturn(of(member));
+
+        final CachingAccessControlService service = newService();
+        assertEquals(AccessModes.READ, service.getAccessModes(mockSession, resource));
+    }
+
+    @Test
+    public void testInvalidate() {
+        when(mockSession.getAgent()).thenReturn(agent);
+        when(mockSession.getDelegatedBy()).thenReturn(empty());
+
+        final CachingAccessControlService service = newService();
+        assertTrue(service.canWrite(mockSession, resource));
+
+        acls.put(resource, asList(authorization(ACL.agent, agent, ACL.Read)));
+        assertTrue(service.canWrite(mockSession, resource));
+        service.invalidate(resource);
+        assertFalse(service.canWrite(mockSession, resource));
+        assertEquals(2, loads.get());
+
+        service.invalidateAll();
+        assertEquals(0L, service.size());
+        assertTrue(service.canRead(mockSession, resource));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testEviction() {
+        when(mockSession.getAgent()).thenReturn(agent);
+        when(mockSession.getDelegatedBy()).thenReturn(empty());
+
+        final CachingAccessControlService service = new CachingAccessControlService(this::load, 1L);
+        service.canRead(mockSession, resource);
+        service.canRead(mockSession, rdf.createIRI("trellis:repository/other"));
+        service.canRead(mockSession, resource);
+        assertEquals(1L, service.size());
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testDecisionEviction() {
+        final IRI other = rdf.createIRI("info:agent/other");
+        final AtomicInteger lookups = new AtomicInteger();
+        final CachingAccessControlService service = new CachingAccessControlService(this::load, id -> {
+                lookups.incrementAndGet();
+                return emptySet();
+            }, 1L);
+        when(mockSession.getDelegatedBy()).thenReturn(empty());
+        when(mockSession.getAgent()).thenReturn(agent, agent, other, other, agent);
+
+        service.canRead(mockSession, resource);
+        service.canRead(mockSession, resource);
+        assertEquals(1, lookups.get());
+        // Once the cache is full, a new decision replaces an older one
+        service.canRead(mockSession, resource);
+        service.canRead(mockSession, resource);
+        assertEquals(2, lookups.get());
+        service.canRead(mockSession, resource);
+        assertEquals(3, lookups.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeSize() {
+        new CachingAccessControlService(this::load, -1L);
+    }
+
+    private CachingAccessControlService newService() {
+        return new CachingAccessControlService(this::load,
+                    id -> member.equals(id) ? singleton(group) : emptySet(), 10L);
+    }
+
+    private List<Authorization> load(final IRI identifier) {
+        loads.incrementAndGet();
+        return acls.getOrDefault(identifier, new ArrayList<>());
+    }
+
+    private static Authorization authorization(final IRI property, final IRI value, final IRI... modes) {
+        final Graph graph = rdf.createGraph();
+        final BlankNode subject = rdf.createBlankNode();
+        graph.add(subject, property, value);
+        for (final IRI mode : modes) {
+            graph.add(subject, ACL.mode, mode);
+        }
+        return Authorization.from(subject, graph);
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.time.Duration.ofMinutes;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.trellisldp.vocabulary.RDF.type;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.trellisldp.vocabulary.VCARD;
+
+/**
+ * @author acoburn
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CachingGroupServiceTest {
+
+    private static final RDF rdf = new SimpleRDF();
+
+    private final IRI agent = rdf.createIRI("info:agent/foo");
+    private final IRI other = rdf.createIRI("info:agent/bar");
+    private final IRI editors = rdf.createIRI("info:group/editors");
+    private final IRI admins = rdf.createIRI("info:group/admins");
+    private final Instant now = Instant.now();
+
+    @Mock
+    private GroupService mockGroupService;
+
+    @Mock
+    private Clock mockClock;
+
+    private CachingGroupService service;
+
+    @Before
+    public void setUp() {
+        when(mockClock.instant()).thenReturn(now);
+        service = new CachingGroupService(mockGroupService, 10L, ofMinutes(5L), mockClock);
+    }
+
+    @Test
+    public void testCached() {
+        when(mockGroupService.getGroups(agent)).thenReturn(singleton(editors));
+
+        assertEquals(singleton(editors), service.getGroups(agent));
+        assertTrue(service.isMember(agent, editors));
+        verify(mockGroupService, times(1)).getGroups(agent);
+        assertEquals(1L, service.getHitCount());
+        assertEquals(1L, service.getMissCount());
+        assertEquals(1L, service.size());
+    }
+
+    @Test
+    public void testExpiry() {
+        when(mockGroupService.getGroups(agent)).thenReturn(singleton(editors));
+
+        service.getGroups(agent);
+        when(mockClock.instant()).thenReturn(now.plusSeconds(600L));
+        service.getGroups(agent);
+        verify(mockGroupService, times(2)).getGroups(agent);
+    }
+
+    @Test
+    public void testInvalidate() {
+        when(mockGroupService.getGroups(any())).thenReturn(emptySet());
+
+        service.getGroups(agent);
+        service.getGroups(other);
+        service.invalidate(agent);
+        assertEquals(1L, service.size());
+        service.getGroups(agent);
+        verify(mockGroupService, times(2)).getGroups(agent);
+
+        service.invalidateAll();
+        assertEquals(0L, service.size());
+    }
+
+    @Test
+    public void testBounded() {
+        when(mockGroupService.getGroups(any())).thenReturn(emptySet());
+
+        final CachingGroupService bounded = new CachingGroupService(mockGroupService, 1L, ofMinutes(5L), mockClock);
+        bounded.getGroups(agent);
+        bounded.getGroups(other);
+        bounded.getGroups(agent);
+        assertEquals(1L, bounded.size());
+        verify(mockGroupService, times(2)).getGroups(agent);
+    }
+
+    @Test
+    public void testPreload() {
+        final Graph graph = rdf.createGraph();
+        final IRI notGroup = rdf.createIRI("info:group/untyped");
+        graph.add(editors, type, VCARD.Group);
+        graph.add(admins, type, VCARD.Group);
+        graph.add(editors, VCARD.hasMember, agent);
+        graph.add(admins, VCARD.hasMember, agent);
+        graph.add(admins, VCARD.hasMember, other);
+        // A resource that is not typed as a vcard:Group does not confer membership
+        graph.add(notGroup, VCARD.hasMember, other);
+
+        final Map<IRI, Set<IRI>> memberships = CachingGroupService.getMemberships(graph);
+        assertEquals(new HashSet<>(asList(editors, admins)), memberships.get(agent));
+        assertEquals(singleton(admins), memberships.get(other));
+
+        service.preload(memberships);
+        assertTrue(service.isMember(agent, editors));
+        assertTrue(service.isMember(other, admins));
+        verify(mockGroupService, never()).getGroups(any());
+
+        service.preload(singletonMap(other, emptySet()));
+        assertEquals(emptySet(), service.getGroups(other));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeSize() {
+        new CachingGroupService(mockGroupService, -1L, ofMinutes(5L));
+    }
+}
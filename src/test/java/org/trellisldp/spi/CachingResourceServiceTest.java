@@ -0,0 +1,254 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.time.Duration.ofMinutes;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.Dataset;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.trellisldp.api.Resource;
+
+/**
+ * @author acoburn
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CachingResourceServiceTest {
+
+    private static final RDF rdf = new SimpleRDF();
+
+    private final IRI identifier = rdf.createIRI("trellis:repository/resource");
+    private final IRI other = rdf.createIRI("trellis:repository/other");
+    private final Instant now = Instant.parse("2017-10-01T12:00:00Z");
+
+    @Mock
+    private ResourceService mockResourceService;
+
+    @Mock
+    private Resource mockResource;
+
+    @Mock
+    private Resource mockOtherResource;
+
+    @Mock
+    private Clock mockClock;
+
+    private CachingResourceService service;
+
+    @Before
+    public void setUp() {
+        when(mockClock.instant()).thenReturn(now);
+        when(mockOtherResource.getIdentifier()).thenReturn(other);
+        when(mockResourceService.get(eq(identifier))).thenReturn(of(mockResource));
+        when(mockResourceService.get(eq(other))).thenReturn(of(mockOtherResource));
+        service = new CachingResourceService(mockResourceService, 10L, 100L, res -> 1L, ofMinutes(5L), mockClock);
+    }
+
+    @Test
+    public void testCacheHit() {
+        assertEquals(of(mockResource), service.get(identifier));
+        assertEquals(of(mockResource), service.get(identifier));
+        verify(mockResourceService, times(1)).get(eq(identifier));
+        assertEquals(1L, service.getHitCount());
+        assertEquals(1L, service.getMissCount());
+        assertEquals(1L, service.size());
+    }
+
+    @Test
+    public void testMissingResource() {
+        final IRI missing = rdf.createIRI("trellis:repository/missing");
+        when(mockResourceService.get(eq(missing))).thenReturn(empty());
+        assertFalse(service.get(missing).isPresent());
+        assertFalse(service.get(missing).isPresent());
+        verify(mockResourceService, times(2)).get(eq(missing));
+        assertEquals(0L, service.size());
+    }
+
+    @Test
+    public void testExpiry() {
+        service.get(identifier);
+        when(mockClock.instant()).thenReturn(now.plusSeconds(600L));
+        service.get(identifier);
+        verify(mockResourceService, times(2)).get(eq(identifier));
+        assertEquals(2L, service.getMissCount());
+    }
+
+    @Test
+    public void testSizeEviction() {
+        final CachingResourceService small = new CachingResourceService(mockResourceService, 1L, ofMinutes(5L));
+        small.get(identifier);
+        small.get(other);
+        small.get(identifier);
+        assertEquals(1L, small.size());
+        assertEquals(2L, small.getEvictionCount());
+        verify(mockResourceService, times(2)).get(eq(identifier));
+    }
+
+    @Test
+    public void testWeightEviction() {
+        final CachingResourceService weighted = new CachingResourceService(mockResourceService, 10L, 5L,
+                res -> res.equals(mockResource) ? 4L : 2L, ofMinutes(5L), mockClock);
+        weighted.get(identifier);
+        assertEquals(4L, weighted.getWeight());
+        weighted.get(other);
+        assertEquals(1L, weighted.size());
+        assertEquals(2L, weighted.getWeight());
+        assertEquals(1L, weighted.getEvictionCount());
+    }
+
+    @Test
+    public void testPutInvalidates() {
+        final Dataset dataset = rdf.createDataset();
+        when(mockResourceService.put(eq(identifier), eq(dataset))).thenReturn(true);
+        service.get(identifier);
+        assertTrue(service.put(identifier, dataset));
+        service.get(identifier);
+        verify(mockResourceService, times(2)).get(eq(identifier));
+    }
+
+    @Test
+    public void testPutAllInvalidates() {
+        final Map<IRI, Dataset> datasets = singletonMap(identifier, rdf.createDataset());
+        when(mockResourceService.putAll(eq(datasets))).thenReturn(singletonMap(identifier, true));
+        service.get(identifier);
+        assertTrue(service.putAll(datasets).get(identifier));
+        service.get(identifier);
+        verify(mockResourceService, times(2)).get(eq(identifier));
+    }
+
+    @Test
+    public void testPurgeInvalidates() {
+        final Instant time = now.minusSeconds(60L);
+        when(mockResourceService.get(eq(identifier), eq(time))).thenReturn(of(mockResource));
+        when(mockResourceService.purge(eq(identifier))).thenAnswer(inv -> Stream.empty());
+        service.get(identifier);
+        service.get(identifier, time);
+        assertEquals(0L, service.purge(identifier).count());
+        service.get(identifier);
+        service.get(identifier, time);
+        verify(mockResourceService, times(2)).get(eq(identifier));
+        verify(mockResourceService, times(2)).get(eq(identifier), eq(time));
+    }
+
+    @Test
+    public void testLazyPurge() {
+        final AtomicBoolean purged = new AtomicBoolean();
+        when(mockResourceService.purge(eq(identifier))).thenAnswer(inv ->
+                Stream.of(identifier).peek(id -> purged.set(true)));
+        service.get(identifier);
+        final Stream<IRI> result = service.purge(identifier);
+        // The purge has taken effect, and the cache is invalidated, before the result is consumed
+        assertTrue(purged.get());
+        service.get(identifier);
+        assertEquals(1L, result.count());
+        verify(mockResourceService, times(2)).get(eq(identifier));
+    }
+
+    @Test
+    public void testCompactInvalidates() {
+        final Instant time = now.minusSeconds(60L);
+        when(mockResourceService.get(eq(identifier), eq(time))).thenReturn(of(mockResource));
+        when(mockResourceService.compact(eq(identifier), any(), any())).thenAnswer(inv -> Stream.empty());
+        service.get(identifier, time);
+        service.compact(identifier, time, now);
+        service.get(identifier, time);
+        verify(mockResourceService, times(2)).get(eq(identifier), eq(time));
+    }
+
+    @Test
+    public void testMementoCache() {
+        final Instant past = now.minusSeconds(60L);
+        final Instant future = now.plusSeconds(60L);
+        when(mockResourceService.get(eq(identifier), any())).thenReturn(of(mockResource));
+        service.get(identifier, past);
+        service.get(identifier, past);
+        service.get(identifier, future);
+        service.get(identifier, future);
+        when(mockClock.instant()).thenReturn(now.plusSeconds(86400L));
+        service.get(identifier, past);
+        verify(mockResourceService, times(1)).get(eq(identifier), eq(past));
+        verify(mockResourceService, times(2)).get(eq(identifier), eq(future));
+        assertEquals(2L, service.getHitCount());
+    }
+
+    @Test
+    public void testGetAll() {
+        when(mockResourceService.getAll(any())).thenAnswer(inv -> Stream.of(mockOtherResource));
+        service.get(identifier);
+        final List<Resource> resources = service.getAll(asList(identifier, other)).collect(toList());
+        assertEquals(2L, resources.size());
+        assertTrue(resources.contains(mockResource));
+        assertTrue(resources.contains(mockOtherResource));
+        verify(mockResourceService).getAll(eq(asList(other)));
+
+        assertEquals(2L, service.getAll(asList(identifier, other)).count());
+        verify(mockResourceService, times(1)).getAll(any());
+        verify(mockResourceService, never()).get(eq(other));
+    }
+
+    @Test
+    public void testInvalidateAll() {
+        service.get(identifier);
+        service.get(other);
+        assertEquals(2L, service.size());
+        service.invalidateAll();
+        assertEquals(0L, service.size());
+        assertEquals(0L, service.getWeight());
+    }
+
+    @Test
+    public void testDelegation() {
+        final IRI container = rdf.createIRI("trellis:repository");
+        when(mockResourceService.getContainer(eq(identifier))).thenReturn(of(container));
+        when(mockResourceService.getIdentifierSupplier()).thenReturn(() -> "id");
+        assertEquals(of(container), service.getContainer(identifier));
+        assertEquals("id", service.getIdentifierSupplier().get());
+        service.list("repository");
+        service.export("repository", asList(identifier));
+        service.skolemize(identifier);
+        service.unskolemize(identifier);
+        verify(mockResourceService).list(eq("repository"));
+        verify(mockResourceService).export(eq("repository"), eq(asList(identifier)));
+        verify(mockResourceService).skolemize(eq(identifier));
+        verify(mockResourceService).unskolemize(eq(identifier));
+    }
+}
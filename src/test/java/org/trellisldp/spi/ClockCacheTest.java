@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * @author acoburn
+ */
+public class ClockCacheTest {
+
+    @Test
+    public void testCache() {
+        final ClockCache<String, Integer> cache = new ClockCache<>(2);
+        assertNull(cache.get("a"));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertEquals(2L, cache.size());
+
+        cache.put("b", 3);
+        assertEquals(Integer.valueOf(3), cache.get("b"));
+        assertEquals(2L, cache.size());
+
+        cache.remove("a");
+        cache.remove("a");
+        assertNull(cache.get("a"));
+        assertEquals(1L, cache.size());
+
+        cache.clear();
+        assertNull(cache.get("b"));
+        assertEquals(0L, cache.size());
+    }
+
+    @Test
+    public void testEviction() {
+        final ClockCache<String, Integer> cache = new ClockCache<>(3);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        cache.get("a");
+        cache.get("c");
+        // Entries used since they were cached get a second chance, and the new entry is always kept
+        cache.put("d", 4);
+        assertEquals(3L, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals(Integer.valueOf(4), cache.get("d"));
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertEquals(Integer.valueOf(3), cache.get("c"));
+    }
+
+    @Test
+    public void testNewEntryKept() {
+        final ClockCache<String, Integer> cache = new ClockCache<>(1);
+        cache.put("a", 1);
+        cache.get("a");
+        cache.put("b", 2);
+        assertEquals(1L, cache.size());
+        assertEquals(Integer.valueOf(2), cache.get("b"));
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void testBounded() {
+        final ClockCache<Integer, Integer> cache = new ClockCache<>(10);
+        for (int i = 0; i < 1000; ++i) {
+            cache.put(i, i);
+            cache.get(i / 2);
+        }
+        assertEquals(10L, cache.size());
+    }
+
+    @Test
+    public void testZeroSize() {
+        final ClockCache<String, Integer> cache = new ClockCache<>(0);
+        cache.put("a", 1);
+        assertNull(cache.get("a"));
+        assertEquals(0L, cache.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeSize() {
+        new ClockCache<>(-1);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofMinutes;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singleton;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.trellisldp.vocabulary.AS.Create;
+import static org.trellisldp.vocabulary.AS.Update;
+import static org.trellisldp.vocabulary.LDP.Container;
+import static org.trellisldp.vocabulary.LDP.RDFSource;
+
+import java.time.Instant;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/**
+ * @author acoburn
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CoalescingEventServiceTest {
+
+    private static final RDF rdf = new SimpleRDF();
+
+    private final IRI target = rdf.createIRI("trellis:repository/resource");
+    private final IRI agent1 = rdf.createIRI("info:user/foo");
+    private final IRI agent2 = rdf.createIRI("info:user/bar");
+    private final Instant created = Instant.now();
+
+    @Mock
+    private EventService mockEventService;
+
+    @Mock
+    private Event mockEvent1, mockEvent2, mockEvent3;
+
+    @Test
+    public void testCoalesce() {
+        setUpEvent(mockEvent1, "info:event/1", agent1, Create, RDFSource, created);
+        setUpEvent(mockEvent2, "info:event/2", agent2, Update, Container, created.plusSeconds(1L));
+        setUpEvent(mockEvent3, "info:event/3", agent1, Update, Container, created.plusSeconds(2L));
+
+        final CoalescingEventService service = new CoalescingEventService(mockEventService, ofMinutes(1L));
+        service.emit(mockEvent1);
+        service.emit(mockEvent3);
+        service.emit(mockEvent2);
+        assertEquals(1, service.getPendingCount());
+        verify(mockEventService, never()).emit(any());
+
+        service.close();
+        final ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+        verify(mockEventService).emit(captor.capture());
+        final Event event = captor.getValue();
+        assertEquals(rdf.createIRI("info:event/3"), event.getIdentifier());
+        assertEquals(of(target), event.getTarget());
+        assertEquals(asList(Create, Update), event.getTypes());
+        assertEquals(asList(agent1, agent2), event.getAgents());
+        assertEquals(asList(Container), event.getTargetTypes());
+        assertEquals(created.plusSeconds(2L), event.getCreated());
+        assertEquals(0, service.getPendingCount());
+        assertEquals(3L, service.getReceivedCount());
+        assertEquals(1L, service.getEmittedCount());
+    }
+
+    @Test
+    public void testWindow() {
+        setUpEvent(mockEvent1, "info:event/1", agent1, Update, Container, created);
+        setUpEvent(mockEvent2, "info:event/2", agent1, Update, Container, created);
+
+        final CoalescingEventService service = new CoalescingEventService(mockEventService, ofMillis(50L));
+        service.emit(mockEvent1);
+        service.emit(mockEvent2);
+        verify(mockEventService, timeout(5000L)).emit(mockEvent2);
+        assertEquals(0, service.getPendingCount());
+
+        service.emit(mockEvent1);
+        verify(mockEventService, timeout(5000L)).emit(mockEvent1);
+        service.close();
+    }
+
+    @Test
+    public void testStaleWindow() throws Exception {
+        setUpEvent(mockEvent1, "info:event/1", agent1, Update, Container, created);
+        setUpEvent(mockEvent2, "info:event/2", agent1, Update, Container, created);
+
+        final CoalescingEventService service = new CoalescingEventService(mockEventService, ofMillis(1000L));
+        service.emit(mockEvent1);
+        Thread.sleep(500L);
+        service.flush();
+        service.emit(mockEvent2);
+        // The first window's timer has fired by now, but it must not close the second window
+        Thread.sleep(700L);
+        verify(mockEventService, never()).emit(mockEvent2);
+        assertEquals(1, service.getPendingCount());
+        verify(mockEventService, timeout(5000L)).emit(mockEvent2);
+        service.close();
+    }
+
+    @Test
+    public void testDuplicateTypes() {
+        setUpEvent(mockEvent1, "info:event/1", agent1, Create, RDFSource, created);
+        setUpEvent(mockEvent2, "info:event/2", agent1, Update, Container, created.plusSeconds(1L));
+        when(mockEvent2.getTypes()).thenReturn(asList(Update, Update));
+
+        final CoalescingEventService service = new CoalescingEventService(mockEventService, ofMinutes(1L));
+        service.emit(mockEvent1);
+        service.emit(mockEvent2);
+        service.flush();
+        final ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+        verify(mockEventService).emit(captor.capture());
+        assertEquals(asList(Create, Update), captor.getValue().getTypes());
+        service.close();
+    }
+
+    @Test
+    public void testNoTarget() {
+        when(mockEvent1.getTarget()).thenReturn(empty());
+
+        final CoalescingEventService service = new CoalescingEventService(mockEventService, ofMinutes(1L));
+        service.emit(mockEvent1);
+        service.emit(mockEvent1);
+        verify(mockEventService, times(2)).emit(mockEvent1);
+        assertEquals(0, service.getPendingCount());
+        service.close();
+    }
+
+    @Test
+    public void testFailure() {
+        when(mockEvent1.getTarget()).thenReturn(of(target));
+        when(mockEvent1.getTypes()).thenReturn(singleton(Update));
+        when(mockEvent1.getAgents()).thenReturn(emptyList());
+        when(mockEvent1.getCreated()).thenReturn(created);
+        doThrow(new RuntimeRepositoryException("Expected")).when(mockEventService).emit(any());
+
+        final CoalescingEventService service = new CoalescingEventService(mockEventService, ofMinutes(1L));
+        service.emit(mockEvent1);
+        service.flush();
+        assertEquals(1L, service.getFailedCount());
+        assertEquals(0L, service.getEmittedCount());
+        service.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClosed() {
+        final CoalescingEventService service = new CoalescingEventService(mockEventService, ofMinutes(1L));
+        service.close();
+        service.emit(mockEvent1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWindow() {
+        new CoalescingEventService(mockEventService, ofMillis(0L));
+    }
+
+    @Test
+    public void testSingleEvent() {
+        setUpEvent(mockEvent1, "info:event/1", agent1, Update, Container, created);
+
+        final CoalescingEventService service = new CoalescingEventService(mockEventService, ofMinutes(1L));
+        service.emit(mockEvent1);
+        service.flush();
+        final ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+        verify(mockEventService).emit(captor.capture());
+        assertSame(mockEvent1, captor.getValue());
+        service.close();
+    }
+
+    private void setUpEvent(final Event event, final String identifier, final IRI agent, final IRI type,
+            final IRI targetType, final Instant time) {
+        when(event.getTarget()).thenReturn(of(target));
+        when(event.getTypes()).thenReturn(singleton(type));
+        when(event.getAgents()).thenReturn(singleton(agent));
+        when(event.getCreated()).thenReturn(time);
+        // Only read when events are merged
+        lenient().when(event.getIdentifier()).thenReturn(rdf.createIRI(identifier));
+        lenient().when(event.getTargetTypes()).thenReturn(singleton(targetType));
+        lenient().when(event.getInbox()).thenReturn(empty());
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singleton;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.when;
+import static org.trellisldp.vocabulary.AS.Create;
+import static org.trellisldp.vocabulary.AS.Update;
+import static org.trellisldp.vocabulary.LDP.Container;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/**
+ * @author acoburn
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class EventOutboxTest {
+
+    private static final RDF rdf = new SimpleRDF();
+
+    private final Instant created = Instant.now();
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private Event mockEvent1, mockEvent2;
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = folder.newFolder().toPath();
+        when(mockEvent1.getIdentifier()).thenReturn(rdf.createIRI("info:event/1"));
+        when(mockEvent1.getAgents()).thenReturn(singleton(rdf.createIRI("info:user/test")));
+        when(mockEvent1.getTarget()).thenReturn(of(rdf.createIRI("trellis:repository/resource")));
+        when(mockEvent1.getTypes()).thenReturn(singleton(Create));
+        when(mockEvent1.getTargetTypes()).thenReturn(singleton(Container));
+        when(mockEvent1.getCreated()).thenReturn(created);
+        when(mockEvent1.getInbox()).thenReturn(of(rdf.createIRI("info:ldn/inbox")));
+
+        when(mockEvent2.getIdentifier()).thenReturn(rdf.createIRI("info:event/2"));
+        when(mockEvent2.getAgents()).thenReturn(emptyList());
+        when(mockEvent2.getTarget()).thenReturn(empty());
+        when(mockEvent2.getTypes()).thenReturn(asList(Create, Update));
+        when(mockEvent2.getCreated()).thenReturn(created);
+        when(mockEvent2.getInbox()).thenReturn(empty());
+    }
+
+    @Test
+    public void testReplay() {
+        try (final EventOutbox outbox = new EventOutbox(directory, 10)) {
+            assertEquals(0L, outbox.append(mockEvent1));
+            final long offset = outbox.getEndOffset();
+            outbox.emit(mockEvent2);
+
+            final List<EventOutbox.Entry> entries = outbox.replay(0L).collect(toList());
+            assertEquals(2, entries.size());
+            assertEquals(offset, entries.get(0).getNextOffset());
+            assertEquals(offset, entries.get(1).getOffset());
+            assertEquals(outbox.getEndOffset(), entries.get(1).getNextOffset());
+
+            final Event event = entries.get(0).getEvent();
+            assertEquals(mockEvent1.getIdentifier(), event.getIdentifier());
+            assertEquals(asList(rdf.createIRI("info:user/test")), event.getAgents());
+            assertEquals(mockEvent1.getTarget(), event.getTarget());
+            assertEquals(asList(Create), event.getTypes());
+            assertEquals(asList(Container), event.getTargetTypes());
+            assertEquals(created, event.getCreated());
+            assertEquals(mockEvent1.getInbox(), event.getInbox());
+
+            final List<Event> events = outbox.replay(offset).map(EventOutbox.Entry::getEvent).collect(toList());
+            assertEquals(1, events.size());
+            assertEquals(mockEvent2.getIdentifier(), events.get(0).getIdentifier());
+            assertFalse(events.get(0).getTarget().isPresent());
+            assertFalse(events.get(0).getInbox().isPresent());
+            assertEquals(asList(Create, Update), events.get(0).getTypes());
+        }
+    }
+
+    @Test
+    public void testDeliver() {
+        final List<Event> received = new ArrayList<>();
+        try (final EventOutbox outbox = new EventOutbox(directory, 1)) {
+            outbox.emit(mockEvent1);
+            assertEquals(1L, outbox.deliver("broker", received::add));
+            assertEquals(0L, outbox.deliver("broker", received::add));
+            outbox.emit(mockEvent2);
+            assertEquals(0L, outbox.getCursor("other"));
+        }
+
+        try (final EventOutbox outbox = new EventOutbox(directory, 1)) {
+            assertEquals(1L, outbox.deliver("broker", received::add));
+            assertEquals(outbox.getEndOffset(), outbox.getCursor("broker"));
+            assertEquals(2L, outbox.deliver("other", event -> { }));
+        }
+        assertFalse(Files.exists(directory.resolve("broker.cursor.tmp")));
+        assertEquals(asList("info:event/1", "info:event/2"), received.stream()
+                .map(event -> event.getIdentifier().getIRIString()).collect(toList()));
+    }
+
+    @Test
+    public void testPartialDelivery() {
+        try (final EventOutbox outbox = new EventOutbox(directory, 10)) {
+            outbox.emit(mockEvent1);
+            final long offset = outbox.getEndOffset();
+            outbox.emit(mockEvent2);
+            try {
+                outbox.deliver("broker", event -> {
+                    if (event.getIdentifier().getIRIString().endsWith("2")) {
+                        throw new RuntimeRepositoryException("Expected");
+                    }
+                });
+                fail("Delivery should have failed");
+            } catch (final RuntimeRepositoryException ex) {
+                assertEquals(offset, outbox.getCursor("broker"));
+            }
+        }
+    }
+
+    @Test
+    public void testRecovery() throws Exception {
+        final long end;
+        try (final EventOutbox outbox = new EventOutbox(directory, 10)) {
+            outbox.emit(mockEvent1);
+            end = outbox.getEndOffset();
+        }
+        Files.write(directory.resolve("events.log"), new byte[] {0, 0, 0, 42, 1, 2}, APPEND);
+
+        try (final EventOutbox outbox = new EventOutbox(directory, 10)) {
+            assertEquals(end, outbox.getEndOffset());
+            assertEquals(end, Files.size(directory.resolve("events.log")));
+            outbox.emit(mockEvent2);
+            assertEquals(2L, outbox.replay(0L).count());
+        }
+    }
+
+    @Test
+    public void testRecoverTornPayload() throws Exception {
+        final long end;
+        try (final EventOutbox outbox = new EventOutbox(directory, 10)) {
+            outbox.emit(mockEvent1);
+            end = outbox.getEndOffset();
+            outbox.emit(mockEvent2);
+        }
+        final Path log = directory.resolve("events.log");
+        try (final FileChannel channel = FileChannel.open(log, WRITE)) {
+            channel.truncate(Files.size(log) - 3L);
+        }
+        Files.write(log, new byte[64], APPEND);
+
+        try (final EventOutbox outbox = new EventOutbox(directory, 10)) {
+            assertEquals(end, outbox.getEndOffset());
+            assertEquals(1L, outbox.replay(0L).count());
+        }
+    }
+
+    @Test
+    public void testCorruptRecord() throws Exception {
+        try (final EventOutbox outbox = new EventOutbox(directory, 10)) {
+            outbox.emit(mockEvent1);
+            outbox.emit(mockEvent2);
+        }
+        final Path log = directory.resolve("events.log");
+        final long size = Files.size(log);
+        for (final long offset : new long[] {2L, 20L}) {
+            final byte[] data = Files.readAllBytes(log);
+            data[(int) offset] ^= 0x10;
+            Files.write(log, data);
+            try (final EventOutbox outbox = new EventOutbox(directory, 10)) {
+                fail("Expected an exception for a corrupt record at " + offset);
+            } catch (final RuntimeRepositoryException ex) {
+                // Later, acknowledged events are not discarded
+                assertEquals(size, Files.size(log));
+            }
+            data[(int) offset] ^= 0x10;
+            Files.write(log, data);
+        }
+        try (final EventOutbox outbox = new EventOutbox(directory, 10)) {
+            assertEquals(2L, outbox.replay(0L).count());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidConsumer() {
+        try (final EventOutbox outbox = new EventOutbox(directory, 10)) {
+            outbox.getCursor("../other");
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidOffset() {
+        try (final EventOutbox outbox = new EventOutbox(directory, 10)) {
+            outbox.replay(10L);
+        }
+    }
+
+    @Test(expected = RuntimeRepositoryException.class)
+    public void testMisalignedOffset() {
+        try (final EventOutbox outbox = new EventOutbox(directory, 10)) {
+            outbox.emit(mockEvent1);
+            outbox.replay(1L).count();
+        }
+    }
+
+    @Test
+    public void testEmptyLog() {
+        try (final EventOutbox outbox = new EventOutbox(directory, 10)) {
+            assertEquals(0L, outbox.getEndOffset());
+            assertFalse(outbox.replay(0L).findAny().isPresent());
+        }
+    }
+}
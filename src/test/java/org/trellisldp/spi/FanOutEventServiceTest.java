@@ -0,0 +1,173 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.Duration.ZERO;
+import static java.time.Duration.ofSeconds;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.trellisldp.vocabulary.AS.Update;
+import static org.trellisldp.vocabulary.LDP.Container;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/**
+ * @author acoburn
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FanOutEventServiceTest {
+
+    private static final RDF rdf = new SimpleRDF();
+
+    @Mock
+    private Event mockEvent;
+
+    private final List<byte[]> fast = new ArrayList<>();
+    private final List<byte[]> slow = new ArrayList<>();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final Semaphore received = new Semaphore(0);
+
+    @Test
+    public void testFanOut() throws Exception {
+        setUpEvent();
+        final Map<String, EventSink> sinks = new LinkedHashMap<>();
+        sinks.put("fast", (event, payload) -> {
+            synchronized (fast) {
+                fast.add(payload);
+            }
+            received.release();
+        });
+        sinks.put("slow", (event, payload) -> {
+            started.countDown();
+            try {
+                release.await(5L, SECONDS);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            slow.add(payload);
+        });
+        sinks.put("broken", (event, payload) -> {
+            received.release();
+            throw new RuntimeRepositoryException("Expected");
+        });
+
+        final FanOutEventService service = new FanOutEventService(sinks, 1, ofSeconds(5L));
+        assertEquals(asList("fast", "slow", "broken"), new ArrayList<>(service.getSinkNames()));
+
+        service.emit(mockEvent);
+        assertTrue(started.await(5L, SECONDS));
+        // The slow sink does not hold up the others
+        for (int i = 0; i < 3; ++i) {
+            if (i > 0) {
+                service.emit(mockEvent);
+            }
+            assertTrue(received.tryAcquire(2, 5L, SECONDS));
+        }
+        assertEquals(1, service.getQueueDepth("slow"));
+        release.countDown();
+        service.close();
+
+        assertEquals(3L, service.getSentCount("fast"));
+        assertEquals(2L, service.getSentCount("slow"));
+        assertEquals(1L, service.getDroppedCount("slow"));
+        assertEquals(0L, service.getSentCount("broken"));
+        assertEquals(3L, service.getFailedCount("broken"));
+
+        // Each event is serialized once and shared by all sinks
+        assertSame(fast.get(0), slow.get(0));
+        assertEquals(EventService.serialize(mockEvent).get(), new String(fast.get(0), UTF_8));
+    }
+
+    @Test
+    public void testOverflow() throws Exception {
+        setUpEvent();
+        final List<Event> spilled = new ArrayList<>();
+        final FanOutEventService service = new FanOutEventService(singletonMap("slow", (event, payload) -> {
+                started.countDown();
+                try {
+                    release.await(5L, SECONDS);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }), 1, ofSeconds(5L), spilled::add);
+
+        service.emit(mockEvent);
+        assertTrue(started.await(5L, SECONDS));
+        service.emit(mockEvent);
+        service.emit(mockEvent);
+        release.countDown();
+        service.close();
+
+        assertEquals(asList(mockEvent), spilled);
+        assertEquals(2L, service.getSentCount("slow"));
+        assertEquals(1L, service.getSpilledCount("slow"));
+        assertEquals(0L, service.getDroppedCount("slow"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownSink() {
+        final FanOutEventService service = new FanOutEventService(emptyMap(), 1, ZERO);
+        service.getSentCount("other");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClosed() {
+        final FanOutEventService service = new FanOutEventService(singletonMap("sink", (event, payload) -> { }),
+                1, ZERO);
+        service.close();
+        service.emit(mockEvent);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new FanOutEventService(emptyMap(), 0, ZERO);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeTimeout() {
+        new FanOutEventService(emptyMap(), 1, ofSeconds(-1L));
+    }
+
+    private void setUpEvent() {
+        when(mockEvent.getIdentifier()).thenReturn(rdf.createIRI("info:event/12345"));
+        when(mockEvent.getAgents()).thenReturn(singleton(rdf.createIRI("info:user/test")));
+        when(mockEvent.getTarget()).thenReturn(of(rdf.createIRI("trellis:repository/resource")));
+        when(mockEvent.getTypes()).thenReturn(singleton(Update));
+        when(mockEvent.getTargetTypes()).thenReturn(singleton(Container));
+        when(mockEvent.getInbox()).thenReturn(empty());
+    }
+}
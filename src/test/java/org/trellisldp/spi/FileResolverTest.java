@@ -0,0 +1,397 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Base64.getEncoder;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
+import static java.util.Optional.of;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author acoburn
+ */
+public class FileResolverTest {
+
+    private static final RDF rdf = new SimpleRDF();
+
+    private final IRI identifier = rdf.createIRI("file:///binary/resource");
+    private final IRI other = rdf.createIRI("file:///binary/other");
+    private final String partition = "repository";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path base;
+    private FileResolver resolver;
+
+    @Before
+    public void setUp() throws Exception {
+        base = folder.newFolder().toPath();
+        resolver = new FileResolver(base, FileResolver.SyncPolicy.DIRECTORY);
+    }
+
+    @Test
+    public void testContent() throws Exception {
+        assertEquals(asList("file"), resolver.getUriSchemes());
+        assertFalse(resolver.exists(partition, identifier));
+        assertFalse(resolver.getContent(partition, identifier).isPresent());
+
+        resolver.setContent(partition, identifier, stream("Some binary content"));
+        assertTrue(resolver.exists(partition, identifier));
+        assertFalse(resolver.exists(partition, other));
+        assertEquals("Some binary content", read(resolver.getContent(partition, identifier).get()));
+        assertEquals(emptyMap(), resolver.getMetadata(partition, identifier));
+
+        resolver.setContent(partition, identifier, stream("Other content"));
+        assertEquals("Other content", read(resolver.getContent(partition, identifier).get()));
+
+        resolver.purgeContent(partition, identifier);
+        assertFalse(resolver.exists(partition, identifier));
+        resolver.purgeContent(partition, identifier);
+    }
+
+    @Test
+    public void testLayout() throws Exception {
+        resolver.setContent(partition, identifier, stream("Some binary content"));
+        final Path file = resolver.resolve(partition, identifier);
+        final String hash = file.getFileName().toString();
+        assertEquals(64, hash.length());
+        assertEquals(base.resolve(partition).resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4))
+                .resolve(hash), file);
+        // No temporary files are left behind
+        try (final Stream<Path> files = Files.list(file.getParent())) {
+            assertEquals(asList(file), files.collect(toList()));
+        }
+    }
+
+    @Test
+    public void testCleanUp() throws Exception {
+        resolver.setContent(partition, identifier, stream("Some binary content"));
+        final Path file = resolver.resolve(partition, identifier);
+        final String upload = resolver.initiateUpload(partition, other, "text/plain");
+        resolver.uploadPart(upload, 1, stream("Some binary"));
+
+        // Simulate the files left behind by a process that stopped while writing and completing uploads
+        final Path tmp = Files.createTempFile(file.getParent(), ".", ".tmp");
+        final Path claimed = Files.createDirectories(base.resolve(".uploads").resolve("claimed.completing"));
+        Files.createTempFile(claimed, ".", ".tmp");
+
+        final FileResolver restarted = new FileResolver(base);
+        assertFalse(Files.exists(tmp));
+        assertFalse(Files.exists(claimed));
+        assertEquals("Some binary content", read(restarted.getContent(partition, identifier).get()));
+        assertTrue(restarted.uploadSessionExists(upload));
+        assertEquals(1L, restarted.listParts(upload).count());
+    }
+
+    @Test
+    public void testMetadata() {
+        final Map<String, String> metadata = new HashMap<>();
+        metadata.put("Content-Type", "text/plain");
+        metadata.put("key with spaces", "value=1");
+        resolver.setContent(partition, identifier, stream("Some binary content"), metadata);
+        assertEquals(metadata, resolver.getMetadata(partition, identifier));
+
+        resolver.setContent(partition, identifier, stream("Some binary content"), emptyMap());
+        assertEquals(emptyMap(), resolver.getMetadata(partition, identifier));
+
+        resolver.setContent(partition, identifier, stream("Some binary content"), singletonMap("key", "value"));
+        resolver.purgeContent(partition, identifier);
+        assertEquals(emptyMap(), resolver.getMetadata(partition, identifier));
+    }
+
+    @Test
+    public void testStoredDigests() throws Exception {
+        final BinaryService service = mock(BinaryService.class);
+        doCallRealMethod().when(service).setContent(any(), any(), any());
+        doCallRealMethod().when(service).setContent(any(), any(), any(), any());
+        doCallRealMethod().when(service).calculateDigest(any(), any(), any());
+        when(service.getResolver(any())).thenReturn(of(resolver));
+        when(service.supportedAlgorithms()).thenReturn(singleton("md5"));
+
+        final byte[] data = "Some binary content".getBytes(UTF_8);
+        service.setContent(partition, identifier, new ByteArrayInputStream(data), singletonMap("key", "value"));
+        assertEquals("value", resolver.getMetadata(partition, identifier).get("key"));
+        assertEquals(of(getEncoder().encodeToString(MessageDigest.getInstance("MD5").digest(data))),
+                service.calculateDigest(partition, identifier, "md5"));
+        verify(service, never()).digest(any(), any());
+    }
+
+    @Test
+    public void testConcurrentStoredDigests() throws Exception {
+        final BinaryService service = mock(BinaryService.class);
+        doCallRealMethod().when(service).setContent(any(), any(), any(), any());
+        doCallRealMethod().when(service).calculateDigest(any(), any(), any());
+        when(service.getResolver(any())).thenReturn(of(resolver));
+        when(service.supportedAlgorithms()).thenReturn(singleton("md5"));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 10; ++round) {
+                final List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < 8; ++i) {
+                    final String content = "round" + round + "-write" + i;
+                    futures.add(executor.submit(() -> service.setContent(partition, identifier, stream(content),
+                                    emptyMap())));
+                }
+                for (final Future<?> future : futures) {
+                    future.get(10L, SECONDS);
+                }
+                // The stored digest always describes the stored content
+                final byte[] data = read(resolver.getContent(partition, identifier).get()).getBytes(UTF_8);
+                assertEquals(of(getEncoder().encodeToString(MessageDigest.getInstance("MD5").digest(data))),
+                        service.calculateDigest(partition, identifier, "md5"));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        verify(service, never()).digest(any(), any());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMetadataWithoutContent() {
+        resolver.setMetadata(partition, identifier, singletonMap("key", "value"));
+    }
+
+    @Test
+    public void testRanges() throws Exception {
+        resolver.setContent(partition, identifier, stream("Some binary content"));
+        assertEquals("binary", read(resolver.getContent(partition, identifier, 5L, 10L).get()));
+        assertEquals("content", read(resolver.getContent(partition, identifier, 12L, 100L).get()));
+        assertEquals("", read(resolver.getContent(partition, identifier, 100L, 200L).get()));
+        assertFalse(resolver.getContent(partition, other, 0L, 10L).isPresent());
+
+        final ByteBuffer buffer = resolver.getBuffer(partition, identifier, 5L, 10L).get();
+        assertEquals(6, buffer.remaining());
+        final byte[] bytes = new byte[6];
+        buffer.get(bytes);
+        assertEquals("binary", new String(bytes, UTF_8));
+        assertEquals(7, resolver.getBuffer(partition, identifier, 12L, Long.MAX_VALUE).get().remaining());
+        assertEquals(0, resolver.getBuffer(partition, identifier, 100L, 200L).get().remaining());
+        assertFalse(resolver.getBuffer(partition, other, 0L, 10L).isPresent());
+    }
+
+    @Test
+    public void testChannel() throws Exception {
+        resolver.setContent(partition, identifier, stream("Some binary content"));
+        try (final ReadableByteChannel channel = resolver.getChannel(partition, identifier).get()) {
+            assertTrue(channel instanceof FileChannel);
+            assertEquals(19L, ((FileChannel) channel).size());
+        }
+        assertFalse(resolver.getChannel(partition, other).isPresent());
+    }
+
+    @Test
+    public void testMultipartUpload() throws Exception {
+        assertTrue(resolver.supportsMultipartUpload());
+        final String upload = resolver.initiateUpload(partition, identifier, "text/plain");
+        assertTrue(resolver.uploadSessionExists(upload));
+
+        final String digest2 = resolver.uploadPart(upload, 2, stream(" content"));
+        final String digest1 = resolver.uploadPart(upload, 1, stream("Some binary"));
+        assertEquals(asList(1, 2), resolver.listParts(upload).map(Map.Entry::getKey).collect(toList()));
+        assertEquals(asList(digest1, digest2), resolver.listParts(upload).map(Map.Entry::getValue)
+                .collect(toList()));
+
+        final Map<Integer, String> parts = new HashMap<>();
+        parts.put(1, digest1);
+        parts.put(2, digest2);
+        final BinaryService.MultipartUpload result = resolver.completeUpload(upload, parts);
+        assertEquals(identifier, result.getBinary().getIdentifier());
+        assertEquals("text/plain", result.getBinary().getMimeType().get());
+        assertEquals((Long) 19L, result.getBinary().getSize().get());
+        assertNull(result.getSession());
+        assertFalse(resolver.uploadSessionExists(upload));
+        assertEquals("Some binary content", read(resolver.getContent(partition, identifier).get()));
+    }
+
+    @Test
+    public void testConcurrentUpload() throws Exception {
+        final String upload = resolver.initiateUpload(partition, identifier, "application/octet-stream");
+        final int count = 16;
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final Map<Integer, Future<String>> futures = new HashMap<>();
+        try {
+            for (int i = 1; i <= count; ++i) {
+                final Integer part = i;
+                futures.put(part, executor.submit(() ->
+                            resolver.uploadPart(upload, part, stream("part" + part + ";"))));
+            }
+            final Map<Integer, String> digests = new HashMap<>();
+            for (final Map.Entry<Integer, Future<String>> future : futures.entrySet()) {
+                digests.put(future.getKey(), future.getValue().get(10L, SECONDS));
+            }
+            assertEquals(count, resolver.listParts(upload).count());
+
+            // Replace one part
+            digests.put(3, resolver.uploadPart(upload, 3, stream("third;")));
+            assertEquals(digests.get(3), resolver.listParts(upload).filter(part -> part.getKey() == 3)
+                    .map(Map.Entry::getValue).findFirst().get());
+            assertEquals(count, resolver.listParts(upload).count());
+
+            final List<String> values = new ArrayList<>();
+            new TreeMap<>(digests).forEach((part, digest) -> values.add(digest));
+            resolver.completeUpload(upload, digests);
+            assertEquals(FileResolver.compositeDigest(values),
+                    resolver.getMetadata(partition, identifier).get("multipartDigest"));
+            assertTrue(FileResolver.compositeDigest(values).endsWith("-16"));
+        } finally {
+            executor.shutdown();
+        }
+
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 1; i <= count; ++i) {
+            expected.append(i == 3 ? "third;" : "part" + i + ";");
+        }
+        assertEquals(expected.toString(), read(resolver.getContent(partition, identifier).get()));
+    }
+
+    @Test
+    public void testConcurrentPartReplacement() throws Exception {
+        final String upload = resolver.initiateUpload(partition, identifier, null);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 20; ++round) {
+                final List<Future<String>> futures = new ArrayList<>();
+                for (int i = 0; i < 8; ++i) {
+                    final String content = "round" + round + "-upload" + i;
+                    futures.add(executor.submit(() -> resolver.uploadPart(upload, 1, stream(content))));
+                }
+                final List<String> digests = new ArrayList<>();
+                for (final Future<String> future : futures) {
+                    digests.add(future.get(10L, SECONDS));
+                }
+                // Exactly one of the concurrent uploads is kept
+                final List<String> parts = resolver.listParts(upload).map(Map.Entry::getValue).collect(toList());
+                assertEquals(1, parts.size());
+                assertTrue(digests.contains(parts.get(0)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCompleteTwice() {
+        final String upload = resolver.initiateUpload(partition, identifier, null);
+        final String digest = resolver.uploadPart(upload, 1, stream("Some binary"));
+        resolver.completeUpload(upload, singletonMap(1, digest));
+        try {
+            resolver.completeUpload(upload, singletonMap(1, digest));
+            fail("An upload may only be completed once");
+        } catch (final IllegalArgumentException ex) {
+            assertEquals("Some binary", resolver.getContent(partition, identifier).map(FileResolverTest::readQuietly)
+                    .get());
+        }
+    }
+
+    @Test
+    public void testInvalidPartDigest() throws Exception {
+        final String upload = resolver.initiateUpload(partition, identifier, null);
+        resolver.uploadPart(upload, 1, stream("Some binary"));
+        try {
+            resolver.completeUpload(upload, singletonMap(1, "invalid"));
+            fail("Completing the upload should have failed");
+        } catch (final IllegalArgumentException ex) {
+            assertTrue(resolver.uploadSessionExists(upload));
+            assertFalse(resolver.exists(partition, identifier));
+        }
+        resolver.abortUpload(upload);
+        assertFalse(resolver.uploadSessionExists(upload));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingPart() {
+        final String upload = resolver.initiateUpload(partition, identifier, null);
+        resolver.completeUpload(upload, singletonMap(1, "digest"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownUpload() {
+        resolver.uploadPart("unknown", 1, stream("Some binary"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPartition() {
+        resolver.exists("../other", identifier);
+    }
+
+    private static InputStream stream(final String value) {
+        return new ByteArrayInputStream(value.getBytes(UTF_8));
+    }
+
+    private static String readQuietly(final InputStream stream) {
+        try {
+            return read(stream);
+        } catch (final IOException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    private static String read(final InputStream stream) throws IOException {
+        try (final InputStream input = stream) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4];
+            int count;
+            while ((count = input.read(buffer)) >= 0) {
+                output.write(buffer, 0, count);
+            }
+            return new String(output.toByteArray(), UTF_8);
+        }
+    }
+}
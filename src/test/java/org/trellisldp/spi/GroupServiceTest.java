@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.when;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/**
+ * @author acoburn
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class GroupServiceTest {
+
+    private static final RDF rdf = new SimpleRDF();
+
+    private final IRI agent = rdf.createIRI("info:agent/foo");
+    private final IRI group = rdf.createIRI("info:group/editors");
+
+    @Mock
+    private GroupService mockGroupService;
+
+    @Test
+    public void testIsMember() {
+        doCallRealMethod().when(mockGroupService).isMember(any(), any());
+        when(mockGroupService.getGroups(agent)).thenReturn(singleton(group));
+
+        assertTrue(mockGroupService.isMember(agent, group));
+        assertFalse(mockGroupService.isMember(agent, rdf.createIRI("info:group/other")));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * @author acoburn
+ */
+public class ParallelStreamsTest {
+
+    private final ExecutorService executor = newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testOrdered() {
+        final List<Integer> values = range(0, 100).boxed().collect(toList());
+        final List<Integer> results = ParallelStreams.map(values.stream(), x -> x * 2, executor, 4, true)
+            .collect(toList());
+        assertEquals(range(0, 100).map(x -> x * 2).boxed().collect(toList()), results);
+    }
+
+    @Test
+    public void testUnordered() {
+        final List<Integer> results = ParallelStreams.map(range(0, 100).boxed(), x -> x + 1, executor, 8, false)
+            .collect(toList());
+        assertEquals(100, results.size());
+        assertTrue(results.containsAll(range(1, 101).boxed().collect(toList())));
+    }
+
+    @Test
+    public void testBoundedInFlight() {
+        final AtomicInteger submitted = new AtomicInteger();
+        final List<Integer> first = ParallelStreams.map(range(0, 1000).boxed().peek(x -> submitted.incrementAndGet()),
+                x -> x, executor, 3, true).limit(2).collect(toList());
+        assertEquals(asList(0, 1), first);
+        assertTrue(submitted.get() <= 4);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFailure() {
+        ParallelStreams.map(range(0, 10).boxed(), x -> {
+            if (x == 5) {
+                throw new IllegalStateException("Expected");
+            }
+            return x;
+        }, executor, 2, true).collect(toList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidConcurrency() {
+        ParallelStreams.map(range(0, 10).boxed(), x -> x, executor, 0, true);
+    }
+}
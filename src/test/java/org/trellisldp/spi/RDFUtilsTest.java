@@ -14,6 +14,7 @@
 package org.trellisldp.spi;
 
 import static java.time.Instant.now;
+import static java.util.Arrays.asList;
 import static java.util.Optional.of;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -37,6 +38,8 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.trellisldp.vocabulary.AS;
+import org.trellisldp.vocabulary.DC;
+import org.trellisldp.vocabulary.LDP;
 import org.trellisldp.vocabulary.PROV;
 import org.trellisldp.vocabulary.Trellis;
 import org.trellisldp.vocabulary.XSD;
@@ -146,4 +149,13 @@ public class RDFUtilsTest {
         assertEquals(identifier, RDFUtils.cleanIdentifier(rdf.createIRI("trellis:repository?foo=bar#hash")));
     }
 
+    @Test
+    public void testGetResourceTypes() {
+        assertEquals(asList(LDP.Resource, LDP.RDFSource, LDP.Container, LDP.BasicContainer),
+                RDFUtils.getResourceTypes(LDP.BasicContainer));
+        assertEquals(asList(LDP.Resource, LDP.NonRDFSource), RDFUtils.getResourceTypes(LDP.NonRDFSource));
+        assertEquals(asList(LDP.Resource), RDFUtils.getResourceTypes(LDP.Resource));
+        assertTrue(RDFUtils.getResourceTypes(DC.title).isEmpty());
+        assertEquals(LDP.Container, RDFUtils.superClassOf.get(LDP.DirectContainer));
+    }
 }
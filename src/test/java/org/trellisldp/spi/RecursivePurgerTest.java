@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.stream.Collectors.toList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.trellisldp.api.Resource;
+import org.trellisldp.vocabulary.LDP;
+
+/**
+ * @author acoburn
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class RecursivePurgerTest {
+
+    private static final RDF rdf = new SimpleRDF();
+
+    private final String partition = "repository";
+    private final IRI root = rdf.createIRI("trellis:repository/root");
+    private final IRI child1 = rdf.createIRI("trellis:repository/root/child1");
+    private final IRI child2 = rdf.createIRI("trellis:repository/root/child2");
+    private final IRI grandchild = rdf.createIRI("trellis:repository/root/child1/grandchild");
+    private final Map<IRI, List<IRI>> tree = new HashMap<>();
+    private final List<IRI> purged = Collections.synchronizedList(new ArrayList<>());
+    private final ExecutorService executor = newFixedThreadPool(4);
+    private final AtomicInteger closed = new AtomicInteger();
+
+    @Mock
+    private ResourceService mockResourceService;
+
+    @Mock
+    private BinaryService mockBinaryService;
+
+    @Before
+    public void setUp() {
+        tree.put(root, asList(child1, child2));
+        tree.put(child1, asList(grandchild));
+        tree.put(child2, emptyList());
+        tree.put(grandchild, emptyList());
+
+        when(mockResourceService.getAll(any())).thenAnswer(inv -> {
+            final Collection<IRI> ids = inv.getArgument(0);
+            return ids.stream().map(this::mockResource);
+        });
+        when(mockResourceService.purge(any())).thenAnswer(inv -> {
+            final IRI id = inv.getArgument(0);
+            purged.add(id);
+            return Stream.of(rdf.createIRI("file:" + id.getIRIString()));
+        });
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testPurge() {
+        final RecursivePurger.Result result = new RecursivePurger(mockResourceService, mockBinaryService,
+                executor, 2, Double.POSITIVE_INFINITY).purge(partition, root);
+        assertEquals(4L, result.getResources());
+        assertEquals(4L, result.getBinaries());
+
+        assertEquals(grandchild, purged.get(0));
+        assertTrue(purged.subList(1, 3).containsAll(asList(child1, child2)));
+        assertEquals(root, purged.get(3));
+
+        verify(mockBinaryService).purgeContent(eq(partition), eq(rdf.createIRI("file:" + grandchild.getIRIString())));
+        verify(mockBinaryService).purgeContent(eq(partition), eq(rdf.createIRI("file:" + root.getIRIString())));
+
+        // Siblings are looked up together, and every containment stream is closed
+        verify(mockResourceService).getAll(eq(asList(child1, child2)));
+        verify(mockResourceService, never()).get(any());
+        assertEquals(4, closed.get());
+    }
+
+    @Test
+    public void testPurgeCycle() {
+        tree.put(grandchild, asList(root));
+        final RecursivePurger.Result result = new RecursivePurger(mockResourceService, mockBinaryService,
+                executor, 2, 1000.0).purge(partition, root);
+        assertEquals(4L, result.getResources());
+    }
+
+    @Test
+    public void testPurgeFailure() {
+        doThrow(new RuntimeRepositoryException("Expected")).when(mockResourceService).purge(eq(grandchild));
+        try {
+            new RecursivePurger(mockResourceService, mockBinaryService, executor, 2, Double.POSITIVE_INFINITY)
+                .purge(partition, root);
+        } catch (final RuntimeRepositoryException ex) {
+            // Ancestors of a resource that could not be purged are left in place
+            assertFalse(purged.contains(child1));
+            assertFalse(purged.contains(root));
+            return;
+        }
+        fail("Expected an exception");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidConcurrency() {
+        new RecursivePurger(mockResourceService, mockBinaryService, executor, 0, Double.POSITIVE_INFINITY);
+    }
+
+    private Resource mockResource(final IRI identifier) {
+        final Resource resource = mock(Resource.class);
+        when(resource.getIdentifier()).thenReturn(identifier);
+        when(resource.stream(eq(LDP.PreferContainment))).thenAnswer(inv -> tree.get(identifier).stream()
+                .map(child -> rdf.createTriple(identifier, LDP.contains, child)).collect(toList()).stream()
+                .onClose(closed::incrementAndGet));
+        return resource;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Optional.of;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.trellisldp.vocabulary.RDF.type;
+
+import java.io.File;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.trellisldp.vocabulary.LDP;
+
+/**
+ * @author acoburn
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ResourceCompactorTest {
+
+    private static final RDF rdf = new SimpleRDF();
+
+    private final String partition = "repository";
+    private final Instant from = Instant.parse("2017-01-01T00:00:00Z");
+    private final Instant until = Instant.parse("2017-10-01T00:00:00Z");
+    private final List<IRI> resources = range(0, 20).mapToObj(i -> rdf.createIRI("trellis:repository/r" + i))
+        .collect(toList());
+    private final ExecutorService executor = newFixedThreadPool(4);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private ResourceService mockResourceService;
+
+    @Before
+    public void setUp() {
+        when(mockResourceService.list(eq(partition))).thenAnswer(inv ->
+                resources.stream().map(id -> rdf.createTriple(id, type, LDP.RDFSource)));
+        when(mockResourceService.compact(any(), eq(from), eq(until))).thenAnswer(inv ->
+                Stream.of(rdf.createIRI("file:" + ((IRI) inv.getArgument(0)).getIRIString())));
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testCompact() {
+        final ResourceCompactor.Checkpoint checkpoint = ResourceCompactor.Checkpoint.inMemory();
+        final List<IRI> binaries = new ArrayList<>();
+        final ResourceCompactor.Result result = new ResourceCompactor(mockResourceService, executor, 3)
+            .compact(partition, from, until, checkpoint, binaries::add);
+        assertEquals(20L, result.getResources());
+        assertEquals(20L, result.getBinaries());
+        assertEquals(20L, binaries.size());
+        assertTrue(binaries.contains(rdf.createIRI("file:trellis:repository/r7")));
+        assertFalse(checkpoint.load(partition).isPresent());
+    }
+
+    @Test
+    public void testResume() {
+        final ResourceCompactor.Checkpoint checkpoint = ResourceCompactor.Checkpoint.inMemory();
+        checkpoint.save(partition, resources.get(14));
+        final ResourceCompactor.Result result = new ResourceCompactor(mockResourceService, executor, 2, 1000.0, 1)
+            .compact(partition, from, until, checkpoint, binary -> { });
+        assertEquals(5L, result.getResources());
+        verify(mockResourceService, never()).compact(eq(resources.get(14)), any(), any());
+        verify(mockResourceService).compact(eq(resources.get(15)), any(), any());
+        verify(mockResourceService, times(5)).compact(any(), any(), any());
+    }
+
+    @Test
+    public void testResumeFromMissingCheckpoint() {
+        final ResourceCompactor.Checkpoint checkpoint = ResourceCompactor.Checkpoint.inMemory();
+        checkpoint.save(partition, rdf.createIRI("trellis:repository/purged"));
+        final ResourceCompactor.Result result = new ResourceCompactor(mockResourceService, executor, 2)
+            .compact(partition, from, until, checkpoint, binary -> { });
+        assertEquals(20L, result.getResources());
+        verify(mockResourceService, times(20)).compact(any(), any(), any());
+        assertFalse(checkpoint.load(partition).isPresent());
+    }
+
+    @Test
+    public void testCheckpointOnFailure() {
+        final ResourceCompactor.Checkpoint checkpoint = ResourceCompactor.Checkpoint.inMemory();
+        when(mockResourceService.compact(eq(resources.get(10)), any(), any()))
+            .thenThrow(new RuntimeRepositoryException("Expected"));
+        try {
+            new ResourceCompactor(mockResourceService, executor, 2, Double.POSITIVE_INFINITY, 5)
+                .compact(partition, from, until, checkpoint, binary -> { });
+        } catch (final RuntimeRepositoryException ex) {
+            assertEquals(of(resources.get(9)), checkpoint.load(partition));
+            return;
+        }
+        assertTrue("Expected an exception", false);
+    }
+
+    @Test
+    public void testFileCheckpoint() throws Exception {
+        final File file = new File(folder.getRoot(), "checkpoint.properties");
+        final ResourceCompactor.Checkpoint checkpoint = ResourceCompactor.Checkpoint.file(file.toPath());
+        assertFalse(checkpoint.load(partition).isPresent());
+        checkpoint.save(partition, resources.get(3));
+        checkpoint.save("other", resources.get(4));
+        assertEquals(of(resources.get(3)), ResourceCompactor.Checkpoint.file(file.toPath()).load(partition));
+        checkpoint.clear(partition);
+        assertFalse(checkpoint.load(partition).isPresent());
+        assertEquals(of(resources.get(4)), checkpoint.load("other"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRate() {
+        new ResourceCompactor(mockResourceService, executor, 2, 0.0, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidConcurrency() {
+        new ResourceCompactor(mockResourceService, executor, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCheckpointInterval() {
+        new ResourceCompactor(mockResourceService, executor, 2, 10.0, 0);
+    }
+}
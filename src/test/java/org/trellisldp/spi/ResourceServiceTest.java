@@ -14,23 +14,31 @@
 package org.trellisldp.spi;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.synchronizedSet;
 import static java.util.Optional.of;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.when;
 import static org.trellisldp.vocabulary.RDF.type;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.Stream;
 
 import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.Dataset;
 import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.Quad;
 import org.apache.commons.rdf.api.RDF;
@@ -67,6 +75,14 @@ public class ResourceServiceTest {
         doCallRealMethod().when(mockResourceService).unskolemize(any());
         doCallRealMethod().when(mockResourceService).getContainer(any());
         doCallRealMethod().when(mockResourceService).export(any(), any());
+        doCallRealMethod().when(mockResourceService).getAll(any());
+        doCallRealMethod().when(mockResourceService).getAll(any(), any());
+        doCallRealMethod().when(mockResourceService).getAsync(any(), any());
+        doCallRealMethod().when(mockResourceService).getAsync(any(), any(), any());
+        doCallRealMethod().when(mockResourceService).putAsync(any(), any(), any());
+        doCallRealMethod().when(mockResourceService).compactAsync(any(), any(), any(), any());
+        doCallRealMethod().when(mockResourceService).purgeAsync(any(), any());
+        doCallRealMethod().when(mockResourceService).export(any(), any(), any(), anyInt(), anyBoolean());
         when(mockResourceService.list(any())).thenAnswer(inv ->
             asList(rdf.createTriple(existing, type, LDP.Container)).stream());
     }
@@ -108,6 +124,92 @@ public class ResourceServiceTest {
         assertEquals(rdf.createLiteral("A title"), export.get(0).getObject());
     }
 
+    @Test
+    public void testParallelExport() {
+        final Set<IRI> graphs = new HashSet<>();
+        graphs.add(Trellis.PreferUserManaged);
+        final IRI other = rdf.createIRI("trellis:repository/other");
+        final IRI missing = rdf.createIRI("trellis:repository/missing");
+        when(mockResourceService.list(any())).thenAnswer(inv ->
+            Stream.of(rdf.createTriple(existing, type, LDP.Container), rdf.createTriple(missing, type, LDP.Container),
+                rdf.createTriple(rdf.createBlankNode(), type, LDP.Container),
+                rdf.createTriple(other, type, LDP.RDFSource)));
+        when(mockResource.getIdentifier()).thenReturn(existing);
+        final Thread caller = Thread.currentThread();
+        final Set<Thread> readers = synchronizedSet(new HashSet<>());
+        when(mockResource.stream(eq(graphs))).thenAnswer(inv -> {
+            readers.add(Thread.currentThread());
+            return Stream.of(rdf.createTriple(existing, DC.title, rdf.createLiteral("A title")));
+        });
+        when(mockResourceService.get(eq(existing))).thenReturn(of(mockResource));
+        when(mockResourceService.get(eq(missing))).thenReturn(Optional.empty());
+        when(mockResourceService.get(eq(other))).thenReturn(of(mockResource));
+
+        final ExecutorService executor = newFixedThreadPool(2);
+        try {
+            final List<Quad> ordered = mockResourceService.export("repository", graphs, executor, 2, true)
+                .collect(toList());
+            assertEquals(2L, ordered.size());
+            assertEquals(of(existing), ordered.get(0).getGraphName());
+            assertEquals(DC.title, ordered.get(0).getPredicate());
+
+            final List<Quad> unordered = mockResourceService.export("repository", graphs, executor, 1, false)
+                .collect(toList());
+            assertEquals(2L, unordered.size());
+            // Each resource is read on the executor, not by the consuming thread
+            assertFalse(readers.contains(caller));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testGetAll() {
+        final IRI missing = rdf.createIRI("trellis:repository/missing");
+        final Instant time = Instant.now();
+        when(mockResourceService.get(eq(existing))).thenReturn(of(mockResource));
+        when(mockResourceService.get(eq(missing))).thenReturn(Optional.empty());
+        when(mockResourceService.get(eq(existing), eq(time))).thenReturn(of(mockResource));
+        when(mockResourceService.get(eq(missing), eq(time))).thenReturn(Optional.empty());
+
+        final List<Resource> resources = mockResourceService.getAll(asList(existing, missing)).collect(toList());
+        assertEquals(1L, resources.size());
+        assertEquals(mockResource, resources.get(0));
+
+        final List<Resource> mementos = mockResourceService.getAll(asList(existing, missing), time)
+            .collect(toList());
+        assertEquals(1L, mementos.size());
+        assertEquals(mockResource, mementos.get(0));
+    }
+
+    @Test
+    public void testAsyncMethods() throws Exception {
+        final IRI binary = rdf.createIRI("file:binary");
+        final Instant time = Instant.now();
+        final Instant until = time.plusSeconds(60L);
+        final Dataset dataset = rdf.createDataset();
+        when(mockResourceService.get(eq(existing))).thenReturn(of(mockResource));
+        when(mockResourceService.get(eq(existing), eq(time))).thenReturn(of(mockResource));
+        when(mockResourceService.put(eq(existing), eq(dataset))).thenReturn(true);
+        when(mockResourceService.compact(eq(existing), eq(time), eq(until))).thenAnswer(inv -> Stream.of(binary));
+        when(mockResourceService.purge(eq(existing))).thenAnswer(inv -> Stream.of(binary));
+
+        final ExecutorService executor = newFixedThreadPool(2);
+        try {
+            assertEquals(of(mockResource), mockResourceService.getAsync(existing, executor)
+                    .toCompletableFuture().get());
+            assertEquals(of(mockResource), mockResourceService.getAsync(existing, time, executor)
+                    .toCompletableFuture().get());
+            assertTrue(mockResourceService.putAsync(existing, dataset, executor).toCompletableFuture().get());
+            assertEquals(asList(binary), mockResourceService.compactAsync(existing, time, until, executor)
+                    .toCompletableFuture().get());
+            assertEquals(asList(binary), mockResourceService.purgeAsync(existing, executor)
+                    .toCompletableFuture().get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void testGetContainer() {
         final IRI root = rdf.createIRI("trellis:repository");
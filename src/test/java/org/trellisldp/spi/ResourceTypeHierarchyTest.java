@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.Arrays.asList;
+import static java.util.Optional.of;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.trellisldp.spi.RDFUtils.getInstance;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.junit.Test;
+import org.trellisldp.vocabulary.DC;
+import org.trellisldp.vocabulary.LDP;
+
+/**
+ * @author acoburn
+ */
+public class ResourceTypeHierarchyTest {
+
+    private static final RDF rdf = getInstance();
+
+    private final IRI model = rdf.createIRI("http://example.org/ns#OrderedContainer");
+
+    @Test
+    public void testLdpHierarchy() {
+        final ResourceTypeHierarchy hierarchy = ResourceTypeHierarchy.ldp();
+        assertEquals(asList(LDP.Resource, LDP.RDFSource, LDP.Container, LDP.DirectContainer),
+                hierarchy.getResourceTypes(LDP.DirectContainer));
+        assertEquals(of(LDP.Container), hierarchy.getSuperType(LDP.IndirectContainer));
+        assertFalse(hierarchy.getSuperType(LDP.Resource).isPresent());
+        assertFalse(hierarchy.getSuperType(DC.title).isPresent());
+        assertEquals(6, hierarchy.getSuperTypes().size());
+        assertEquals(RDFUtils.superClassOf, hierarchy.getSuperTypes());
+    }
+
+    @Test
+    public void testWithInteractionModel() {
+        final ResourceTypeHierarchy hierarchy = ResourceTypeHierarchy.ldp()
+            .withInteractionModel(model, LDP.BasicContainer);
+        assertEquals(asList(LDP.Resource, LDP.RDFSource, LDP.Container, LDP.BasicContainer, model),
+                hierarchy.getResourceTypes(model));
+        assertEquals(of(LDP.BasicContainer), hierarchy.getSuperType(model));
+
+        // The LDP hierarchy is not modified
+        assertTrue(ResourceTypeHierarchy.ldp().getResourceTypes(model).isEmpty());
+        assertTrue(RDFUtils.getResourceTypes(model).isEmpty());
+        assertFalse(RDFUtils.superClassOf.containsKey(model));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownSuperType() {
+        ResourceTypeHierarchy.ldp().withInteractionModel(model, DC.title);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExistingModel() {
+        ResourceTypeHierarchy.ldp().withInteractionModel(LDP.Container, LDP.Resource);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        ResourceTypeHierarchy.ldp().getResourceTypes(LDP.Container).add(model);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.spi;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static java.util.stream.Stream.of;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.trellisldp.spi.RDFUtils.getInstance;
+import static org.trellisldp.spi.RDFUtils.toExternalTerm;
+import static org.trellisldp.spi.RDFUtils.toInternalTerm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.api.Quad;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.api.Triple;
+import org.junit.Test;
+import org.trellisldp.vocabulary.DC;
+import org.trellisldp.vocabulary.LDP;
+import org.trellisldp.vocabulary.Trellis;
+
+/**
+ * @author acoburn
+ */
+public class TermTranslatorTest {
+
+    private static final RDF rdf = getInstance();
+    private static final String BASE_URL = "http://example.org/";
+
+    private final IRI internal = rdf.createIRI("trellis:repository/resource");
+    private final IRI external = rdf.createIRI(BASE_URL + "repository/resource");
+    private final Literal literal = rdf.createLiteral("A title");
+
+    @Test
+    public void testTerms() {
+        final TermTranslator translator = new TermTranslator(BASE_URL, 10);
+        assertEquals(BASE_URL, translator.getBaseUrl());
+        assertEquals(external, translator.toExternal(internal));
+        assertEquals(internal, translator.toInternal(external));
+        assertEquals(toExternalTerm(internal, BASE_URL), translator.toExternal(internal));
+        assertEquals(toInternalTerm(external, BASE_URL), translator.toInternal(external));
+        assertSame(literal, translator.toExternal(literal));
+        assertSame(DC.title, translator.toInternal(DC.title));
+    }
+
+    @Test
+    public void testCached() {
+        final TermTranslator translator = new TermTranslator(BASE_URL, 10);
+        assertSame(translator.toExternal(internal), translator.toExternal(rdf.createIRI(internal.getIRIString())));
+        assertSame(translator.toInternal(external), translator.toInternal(rdf.createIRI(external.getIRIString())));
+    }
+
+    @Test
+    public void testEviction() {
+        final TermTranslator translator = new TermTranslator(BASE_URL, 2);
+        final IRI first = translator.toExternal(internal);
+        assertSame(first, translator.toExternal(internal));
+        // A recently used IRI survives the insertion of other IRIs
+        final IRI other = translator.toExternal(rdf.createIRI("trellis:repository/other"));
+        translator.toExternal(rdf.createIRI("trellis:repository/another"));
+        assertSame(first, translator.toExternal(internal));
+        assertNotSame(other, translator.toExternal(rdf.createIRI("trellis:repository/other")));
+    }
+
+    @Test
+    public void testNoCache() {
+        final TermTranslator translator = new TermTranslator(BASE_URL, 0);
+        final IRI first = translator.toExternal(internal);
+        assertEquals(first, translator.toExternal(internal));
+        assertNotSame(first, translator.toExternal(internal));
+    }
+
+    @Test
+    public void testConcurrentTranslation() throws Exception {
+        final TermTranslator translator = new TermTranslator(BASE_URL, 16);
+        final List<IRI> iris = range(0, 64).mapToObj(i -> rdf.createIRI("trellis:repository/r" + i))
+            .collect(toList());
+        final ExecutorService executor = newFixedThreadPool(4);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 4; ++i) {
+                results.add(executor.submit(() -> range(0, 1000).allMatch(j -> {
+                    final IRI iri = iris.get(j % iris.size());
+                    return translator.toExternal(iri).getIRIString()
+                        .equals(BASE_URL + iri.getIRIString().substring("trellis:".length()));
+                })));
+            }
+            for (final Future<Boolean> result : results) {
+                assertTrue(result.get(10L, SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeCacheSize() {
+        new TermTranslator(BASE_URL, -1);
+    }
+
+    @Test
+    public void testTriples() {
+        final TermTranslator translator = new TermTranslator(BASE_URL, 10);
+        final Triple untouched = rdf.createTriple(rdf.createBlankNode(), DC.title, literal);
+        final List<Triple> triples = translator.toExternalTriples(of(
+                    rdf.createTriple(internal, DC.title, literal),
+                    rdf.createTriple(internal, LDP.contains, internal), untouched)).collect(toList());
+        assertEquals(rdf.createTriple(external, DC.title, literal), triples.get(0));
+        assertEquals(rdf.createTriple(external, LDP.contains, external), triples.get(1));
+        assertSame(untouched, triples.get(2));
+
+        assertEquals(rdf.createTriple(internal, LDP.contains, internal), translator.toInternalTriples(
+                    of(triples.get(1))).findFirst().get());
+    }
+
+    @Test
+    public void testQuads() {
+        final TermTranslator translator = new TermTranslator(BASE_URL, 10);
+        final Quad untouched = rdf.createQuad(Trellis.PreferUserManaged, external, DC.title, literal);
+        final List<Quad> quads = translator.toExternalQuads(of(
+                    rdf.createQuad(Trellis.PreferUserManaged, internal, DC.title, literal),
+                    rdf.createQuad(null, internal, DC.relation, internal), untouched)).collect(toList());
+        assertEquals(rdf.createQuad(Trellis.PreferUserManaged, external, DC.title, literal), quads.get(0));
+        assertEquals(rdf.createQuad(null, external, DC.relation, external), quads.get(1));
+        assertSame(untouched, quads.get(2));
+
+        assertEquals(rdf.createQuad(null, internal, DC.relation, internal), translator.toInternalQuads(
+                    of(quads.get(1))).findFirst().get());
+    }
+}